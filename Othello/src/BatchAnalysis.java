@@ -0,0 +1,311 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class analyses a file of positions of the Othello game in parallel. Each line of the file contains
+ * the width and the height of the board, the board in the format of the command newGame of the {@link Shell}
+ * (the rows separated by commas, '#' for a hole, '-' for a free field, 'B' for a black piece and 'W' for a
+ * white piece) and the player, who moves ('B' or 'W'), separated by spaces. For each line one line is written,
+ * which contains the number of the line, the number of black and white pieces, the possible moves, the best
+ * move and its score, or an error message if the line is not valid. If the player has to pass, the possible
+ * moves are written as '-' and the best move as "pass", whose score is the score of the position after the pass
+ * from the view of the player, or the final score if the game is over.
+ * <p>
+ * The file is read in chunks of lines, which are analysed by a pool of threads. Only a few chunks per thread
+ * are in progress at the same time, so that the memory does not grow with the size of the file, and the results
+ * are written in the order of the lines. Each thread has its own search.
+ * @author Delyan Nikolov
+ */
+public final class BatchAnalysis {
+
+	/** the number of lines of a chunk */
+	private static final int CHUNK = 256;
+	
+	/** the number of chunks per thread, which are in progress at the same time */
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/** the size of the transposition table of the search of each thread in megabytes */
+	private static final int TABLE_SIZE = 4;
+	
+	/** the difference between 0 and the ASCII value for an upper case letter */
+	private static final int ASCII_VALUE = 65;
+	
+	/**
+	 * Private constructor.
+	 */
+	private BatchAnalysis() {
+	}
+	
+	/**
+	 * main method - analyses a file of positions
+	 * @param args command-line arguments - the input file, the output file, the depth of the search
+	 * and optionally the number of threads
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3 || args.length > 4) {
+			System.out.println("Usage: BatchAnalysis <input> <output> <depth> [<threads>]");
+		} else {
+			int threads = Runtime.getRuntime().availableProcessors();
+			
+			if (args.length == 4) {
+				threads = Integer.parseInt(args[3]);
+			}
+			
+			BufferedReader input = new BufferedReader(new FileReader(args[0]));
+			
+			try {
+				Writer output = new BufferedWriter(new FileWriter(args[1]));
+				
+				try {
+					long start = System.nanoTime();
+					long lines = analyse(input, output, Integer.parseInt(args[2]), threads);
+					long time = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+					System.out.println("Analysed " + lines + " positions (" + time + " ms, "
+							+ (lines * 1000L / time) + " positions/s)");
+				} finally {
+					output.close();
+				}
+			} finally {
+				input.close();
+			}
+		}
+	}
+	
+	/**
+	 * Analyses all positions of the given input with a search of the given depth in the given number of threads,
+	 * writes the results in the order of the positions in the given output and returns the number of lines.
+	 * @param input the input, which contains one position per line
+	 * @param output the output, which receives one result per line
+	 * @param depth the depth of the search
+	 * @param threads the number of threads
+	 * @return the number of analysed lines
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public static long analyse(BufferedReader input, Writer output, final int depth, int threads) throws IOException {
+		if (input == null || output == null) {
+			throw new IllegalArgumentException();
+		} else if (depth < 1 || depth > 64) {
+			throw new IllegalArgumentException();
+		} else if (threads < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		final ThreadLocal<Search> searches = new ThreadLocal<Search>() {
+			
+			@Override
+			protected Search initialValue() {
+				return new Search(new TranspositionTable(TABLE_SIZE));
+			}
+		
+		};
+		
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Deque<Future<String>> pending = new ArrayDeque<Future<String>>();
+		long lines = 0L;
+		
+		try {
+			String line = input.readLine();
+			
+			while (line != null) {
+				final List<String> chunk = new ArrayList<String>(CHUNK);
+				final long first = lines + 1;
+				
+				while (line != null && chunk.size() < CHUNK) {
+					chunk.add(line);
+					lines++;
+					line = input.readLine();
+				}
+				
+				if (pending.size() >= threads * CHUNKS_PER_THREAD) {
+					output.write(pending.removeFirst().get());
+				}
+				
+				pending.addLast(pool.submit(new Callable<String>() {
+					
+					@Override
+					public String call() {
+						StringBuilder result = new StringBuilder();
+						
+						for (int i = 0; i < chunk.size(); i++) {
+							result.append(first + i).append(' ');
+							result.append(analyse(chunk.get(i), searches.get(), depth));
+							result.append(System.lineSeparator());
+						}
+						
+						return result.toString();
+					}
+				
+				}));
+			}
+			
+			while (!pending.isEmpty()) {
+				output.write(pending.removeFirst().get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		
+		output.flush();
+		
+		return lines;
+	}
+	
+	/**
+	 * Analyses the position in the given line and returns the number of black and white pieces, the possible
+	 * moves, the best move and its score or an error message if the line is not valid.
+	 * @param line the line, which contains the position
+	 * @param search the search
+	 * @param depth the depth of the search
+	 * @return the result of the analysis
+	 */
+	private static String analyse(String line, Search search, int depth) {
+		String[] tokens = line.trim().split("\\s+");
+		String result = null;
+		
+		if (tokens.length != 4) {
+			result = "error: Must provide <width> <height> <board> <B|W>.";
+		} else if (!tokens[0].matches("[1-9][0-9]?") || Integer.parseInt(tokens[0]) > 26
+				|| Integer.parseInt(tokens[0]) % 2 != 0) {
+			result = "error: The width of the board must be an even integer between 2 and 26.";
+		} else if (!tokens[1].matches("[1-9][0-9]?") || Integer.parseInt(tokens[1]) % 2 != 0) {
+			result = "error: The height of the board must be an even integer between 2 and 98.";
+		} else if (!tokens[2].matches("[-#BW]+(,[-#BW]+)*")) {
+			result = "error: The board is not valid.";
+		} else if (!tokens[3].equals("B") && !tokens[3].equals("W")) {
+			result = "error: The player must be B or W.";
+		} else {
+			int width = Integer.parseInt(tokens[0]);
+			int height = Integer.parseInt(tokens[1]);
+			String[] rows = tokens[2].split(",");
+			
+			if (rows.length != height) {
+				result = "error: The board is not valid.";
+			}
+			
+			for (int i = 0; i < rows.length && result == null; i++) {
+				if (rows[i].length() != width) {
+					result = "error: The board is not valid.";
+				}
+			}
+			
+			if (result == null) {
+				Board board = new Board(width, height);
+				
+				for (int i = 0; i < height; i++) {
+					for (int j = 0; j < width; j++) {
+						board.setPosition(j, i, piece(rows[i].charAt(j)));
+					}
+				}
+				
+				Piece current = piece(tokens[3].charAt(0));
+				result = analyse(board, current, search, depth);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Analyses the given board and returns the number of black and white pieces, the possible moves,
+	 * the best move and its score.
+	 * @param board the board
+	 * @param current the piece, which moves
+	 * @param search the search
+	 * @param depth the depth of the search
+	 * @return the result of the analysis
+	 */
+	private static String analyse(Board board, Piece current, Search search, int depth) {
+		Piece other = Piece.BLACK;
+		
+		if (current == Piece.BLACK) {
+			other = Piece.WHITE;
+		}
+		
+		MoveList moves = new MoveList(board.getWidth() * board.getHeight());
+		int count = board.generateMoves(current, other, moves);
+		int[] positions = new int[count];
+		
+		for (int i = 0; i < count; i++) {
+			positions[i] = moves.getPosition(i);
+		}
+		
+		Arrays.sort(positions);
+		StringBuilder result = new StringBuilder();
+		result.append(board.numberOfPieces(Piece.BLACK)).append(' ');
+		result.append(board.numberOfPieces(Piece.WHITE)).append(' ');
+		
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				result.append(',');
+			}
+			
+			result.append(positionToString(positions[i], board.getWidth()));
+		}
+		
+		if (count == 0) {
+			result.append('-');
+		}
+		
+		int move = search.bestMove(board, current, depth);
+		
+		if (move == Search.PASS) {
+			result.append(" pass ");
+		} else {
+			result.append(' ').append(positionToString(move, board.getWidth())).append(' ');
+		}
+		
+		result.append(search.getScore());
+		
+		return result.toString();
+	}
+	
+	/**
+	 * Returns the piece of the given character of a board.
+	 * @param character the character
+	 * @return the piece of the given character
+	 */
+	private static Piece piece(char character) {
+		Piece result = Piece.FREE;
+		
+		if (character == '#') {
+			result = Piece.HOLE;
+		} else if (character == 'B') {
+			result = Piece.BLACK;
+		} else if (character == 'W') {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the string representation of the given position, for example "C4".
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param width width of the board
+	 * @return the string representation of the given position
+	 */
+	private static String positionToString(int position, int width) {
+		return (char) ((position % width) + ASCII_VALUE) + "" + ((position / width) + 1);
+	}
+	
+}
@@ -0,0 +1,304 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class measures the speed of the most frequently used methods of the boards in the Othello game. Each
+ * method is measured on reproducible positions for several board sizes, densities of holes and phases of the
+ * game, for the {@link Board} and for the {@link BitBoard}. For each measurement the number of operations per
+ * second, the speedup of the {@link BitBoard} against the {@link Board} on the same positions and the number of
+ * allocated bytes per operation are printed. Each measurement is preceded by a warm-up run of the same length,
+ * whose result is ignored. The allocated bytes are only available on virtual machines, which support the
+ * measurement of the allocations of a thread.
+ * @author Delyan Nikolov
+ */
+public final class Benchmark {
+
+	/** the board sizes as pairs of width and height */
+	private static final int[][] SIZES = {{8, 8}, {16, 16}, {26, 98}};
+	
+	/** the densities of the holes */
+	private static final double[] HOLE_DENSITIES = {0.0, 0.1};
+	
+	/** the phases of the game as the part of the free fields, which are filled with pieces */
+	private static final double[] PHASES = {0.1, 0.5, 0.85};
+	
+	/** the names of the phases of the game */
+	private static final String[] PHASE_NAMES = {"opening", "midgame", "endgame"};
+	
+	/** the names of the measured methods, makeUnmakeMove makes and takes back a move chosen before the measurement */
+	private static final String[] METHODS = {"possibleMove", "allPossibleMoves", "generateMoves", "makeUnmakeMove",
+		"numberOfPieces", "possibleHoleArea"};
+	
+	/** the number of positions for each measurement */
+	private static final int POSITIONS = 16;
+	
+	/** the seed of the random positions */
+	private static final long SEED = 2012L;
+	
+	/** the default time of each measurement in milliseconds */
+	private static final long DEFAULT_MILLIS = 200L;
+	
+	/** receives the results of the measured methods, so that the methods are not removed by the compiler */
+	private static volatile long sink;
+	
+	/**
+	 * Private constructor.
+	 */
+	private Benchmark() {
+	}
+	
+	/**
+	 * main method - runs all measurements
+	 * @param args command-line arguments - optionally the time of each measurement in milliseconds
+	 */
+	public static void main(String[] args) {
+		long millis = DEFAULT_MILLIS;
+		
+		if (args.length > 0) {
+			millis = Long.parseLong(args[0]);
+		}
+		
+		System.out.println(String.format("%-8s %-9s %-6s %-8s %-16s %14s %8s %10s", "size", "engine", "holes",
+				"phase", "method", "ops/s", "speedup", "bytes/op"));
+		
+		for (int[] size : SIZES) {
+			for (double density : HOLE_DENSITIES) {
+				for (int p = 0; p < PHASES.length; p++) {
+					double[] reference = new double[METHODS.length];
+					
+					for (int engine = 0; engine < 2; engine++) {
+						List<Board> boards = positions(size[0], size[1], density, PHASES[p], engine == 1);
+						
+						for (int m = 0; m < METHODS.length; m++) {
+							measure(boards, m, millis);
+							double[] result = measure(boards, m, millis);
+							String bytes = "n/a";
+							
+							if (engine == 0) {
+								reference[m] = result[0];
+							}
+							
+							if (result[1] >= 0) {
+								bytes = String.format("%.1f", result[1]);
+							}
+							
+							System.out.println(String.format("%-8s %-9s %-6s %-8s %-16s %14.0f %8.2f %10s",
+									size[0] + "x" + size[1], engine == 1 ? "BitBoard" : "Board",
+									String.format("%.2f", density), PHASE_NAMES[p], METHODS[m], result[0],
+									result[0] / reference[m], bytes));
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns reproducible random positions with the given parameters. Each position begins with a standard
+	 * board, on which single holes are added with the given density, and random moves are made until the given
+	 * part of the free fields is filled or no player can move. The games are always played on a {@link Board}
+	 * and copied into a {@link BitBoard} if requested, so that both engines are measured on the same positions,
+	 * although they store the possible moves in a different order.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 * @param density the density of the holes
+	 * @param phase the part of the free fields, which are filled with pieces
+	 * @param bitBoard whether the positions are stored in a {@link BitBoard}
+	 * @return reproducible random positions with the given parameters
+	 */
+	public static List<Board> positions(int width, int height, double density, double phase, boolean bitBoard) {
+		Random random = new Random(SEED + width * 1000 + height);
+		List<Board> result = new ArrayList<Board>();
+		MoveList moves = new MoveList(width * height);
+		
+		for (int n = 0; n < POSITIONS; n++) {
+			Board board = new Board(width, height);
+			board.setStandardBoard(width, height);
+			
+			for (int i = 0; i < height; i++) {
+				for (int j = 0; j < width; j++) {
+					if (random.nextDouble() < density && board.possibleHoleArea(j, i, j, i)) {
+						board.addHoleArea(j, i, j, i);
+					}
+				}
+			}
+			
+			int free = board.numberOfFreeFields();
+			Piece current = Piece.BLACK;
+			Piece other = Piece.WHITE;
+			int passes = 0;
+			
+			for (int filled = 0; filled < free * phase && passes < 2; filled++) {
+				int count = board.generateMoves(current, other, moves);
+				
+				if (count > 0) {
+					int move = random.nextInt(count);
+					board.setPiece(moves.getPosition(move), moves.getDirections(move), current);
+					passes = 0;
+				} else {
+					passes++;
+				}
+				
+				Piece swap = current;
+				current = other;
+				other = swap;
+			}
+			
+			if (bitBoard) {
+				Board copy = new BitBoard(width, height);
+				board.copyPositions(copy);
+				board = copy;
+			}
+			
+			result.add(board);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Measures the method with the given index on the given positions for the given time and returns
+	 * the number of operations per second and the number of allocated bytes per operation or -1. The moves,
+	 * which are made and taken back, are chosen before the measurement, so that only applying them is measured.
+	 * The move with the lowest position is chosen, so that both engines make the same move. Before each call
+	 * of possibleMove and allPossibleMoves a piece is set again on its own position, so that the version of the
+	 * board changes and the moves are generated again instead of being returned from the cache of the board.
+	 * @param boards the positions
+	 * @param method the index of the method
+	 * @param millis the time of the measurement in milliseconds
+	 * @return the number of operations per second and the number of allocated bytes per operation
+	 */
+	private static double[] measure(List<Board> boards, int method, long millis) {
+		MoveList moves = new MoveList(boards.get(0).getWidth() * boards.get(0).getHeight());
+		Random random = new Random(SEED);
+		int[][] positions = new int[2][boards.size()];
+		int[][] directions = new int[2][boards.size()];
+		int[] pieces = new int[boards.size()];
+		
+		for (int i = 0; i < boards.size(); i++) {
+			Board board = boards.get(i);
+			pieces[i] = 0;
+			
+			while (board.getBoard()[pieces[i] / board.getWidth()][pieces[i] % board.getWidth()] != Piece.BLACK
+					&& board.getBoard()[pieces[i] / board.getWidth()][pieces[i] % board.getWidth()] != Piece.WHITE) {
+				pieces[i]++;
+			}
+			
+			for (int c = 0; c < 2; c++) {
+				positions[c][i] = -1;
+				int count = boards.get(i).generateMoves(piece(c), piece(1 - c), moves);
+				
+				for (int j = 0; j < count; j++) {
+					if (positions[c][i] < 0 || moves.getPosition(j) < positions[c][i]) {
+						positions[c][i] = moves.getPosition(j);
+						directions[c][i] = moves.getDirections(j);
+					}
+				}
+			}
+		}
+		
+		long operations = 0L;
+		long result = 0L;
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+		long end = start + (millis * 1000000L);
+		long now = start;
+		
+		while (now < end) {
+			for (int i = 0; i < boards.size(); i++) {
+				Board board = boards.get(i);
+				int color = (int) (operations & 1);
+				Piece current = piece(color);
+				Piece other = piece(1 - color);
+				
+				if (method == 0) {
+					touch(board, pieces[i]);
+					result += board.possibleMove(current, other) ? 1 : 0;
+				} else if (method == 1) {
+					touch(board, pieces[i]);
+					result += board.allPossibleMoves(current, other).size();
+				} else if (method == 2) {
+					result += board.generateMoves(current, other, moves);
+				} else if (method == 3) {
+					if (positions[color][i] >= 0) {
+						board.makeMove(positions[color][i], directions[color][i], current);
+						board.unmakeMove();
+					}
+				} else if (method == 4) {
+					result += board.numberOfPieces(current);
+				} else {
+					int width = random.nextInt(board.getWidth());
+					int height = random.nextInt(board.getHeight());
+					result += board.possibleHoleArea(width / 2, height / 2, width, height) ? 1 : 0;
+				}
+				
+				operations++;
+			}
+			
+			now = System.nanoTime();
+		}
+		
+		long allocated = allocatedBytes();
+		sink = result;
+		double[] measurement = new double[2];
+		measurement[0] = operations * 1e9 / (now - start);
+		measurement[1] = -1;
+		
+		if (bytes >= 0 && allocated >= 0) {
+			measurement[1] = (double) (allocated - bytes) / operations;
+		}
+		
+		return measurement;
+	}
+	
+	/**
+	 * Sets the piece on the given position of the given board again, so that the version of the board
+	 * changes, but not its position.
+	 * @param board the board
+	 * @param position the position of a black or white piece in the form {@code height * width of the board + width}
+	 */
+	private static void touch(Board board, int position) {
+		int width = position % board.getWidth();
+		int height = position / board.getWidth();
+		board.setPosition(width, height, board.getBoard()[height][width]);
+	}
+	
+	/**
+	 * Returns the piece, which moves first in the measurements, for 0 and the other piece for 1.
+	 * @param color 0 or 1
+	 * @return black for 0 and white for 1
+	 */
+	private static Piece piece(int color) {
+		Piece result = Piece.BLACK;
+		
+		if (color == 1) {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the number of bytes, which were allocated by the current thread, or -1 if the virtual machine
+	 * does not support this measurement.
+	 * @return the number of bytes, which were allocated by the current thread, or -1
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		long result = -1L;
+		
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+			
+			if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+				result = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		
+		return result;
+	}
+	
+}
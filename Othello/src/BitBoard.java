@@ -0,0 +1,500 @@
+/**
+ * This class models a board in the Othello game, which stores the black pieces, the white pieces and
+ * the holes as bitsets. Each bitset consists of several words, so that even the largest board with
+ * width 26 and height 98 can be represented. The position with the given width and height has the
+ * index {@code height * width of the board + width}. The possible moves are computed with
+ * shift-and-mask operations on 64 positions per operation for all eight directions, which also yield the
+ * directions and the number of flipped pieces of each move, so that no move is checked position by position.
+ * Only the words, which contain the frontier or the runs starting from it, are computed. Even so, checking each
+ * position of the frontier of the super class is faster on boards with more than one word and in the endgame,
+ * so that the moves are generated there by the super class instead.
+ * The representation and the frontier of the super class are kept up to date, so that the board can still
+ * be printed.
+ * @author Delyan Nikolov
+ */
+public class BitBoard extends Board {
+
+	/** the number of words of the largest board, on which the moves are computed on the bitsets */
+	private static final int MAX_WORDS = 1;
+	
+	/** the number of frontier positions, from which on the moves are computed on the bitsets */
+	private static final int MIN_FRONTIER = 16;
+	
+	/** the number of positions on this board */
+	private int size;
+	
+	/** the number of words of each bitset */
+	private int words;
+	
+	/** all words of each bitset as the bits of a mask */
+	private long wordMask;
+	
+	/** the positions with a black piece */
+	private long[] black;
+	
+	/** the positions with a white piece */
+	private long[] white;
+	
+	/** the positions with a hole */
+	private long[] holes;
+	
+	/** all positions of this board */
+	private long[] valid;
+	
+	/** all positions, which are not in the first column */
+	private long[] notFirstColumn;
+	
+	/** all positions, which are not in the last column */
+	private long[] notLastColumn;
+	
+	/** the shift of the index for each of the eight directions */
+	private int[] shift;
+	
+	/** the positions, which a shift in each of the eight directions may reach */
+	private long[][] directionMask;
+	
+	/** temporary bitset for the positions of the frontier */
+	private long[] frontier;
+	
+	/** temporary bitset for the pieces, which are flipped in one direction */
+	private long[] run;
+	
+	/** temporary bitset for the possible moves */
+	private long[] legal;
+	
+	/** the directions, in which pieces are flipped, of each possible move, while the moves are computed */
+	private int[] moveDirections;
+	
+	/** the number of flipped pieces of each possible move, while the moves are computed */
+	private int[] moveFlips;
+	
+	/**
+	 * Constructs a new empty board with the given width and height.
+	 * @param width width of the board
+	 * @param height height of the board
+	 */
+	public BitBoard(int width, int height) {
+		super(width, height);
+		
+		size = width * height;
+		words = (size + 63) >>> 6;
+		wordMask = (1L << words) - 1;
+		black = new long[words];
+		white = new long[words];
+		holes = new long[words];
+		valid = new long[words];
+		notFirstColumn = new long[words];
+		notLastColumn = new long[words];
+		frontier = new long[words];
+		run = new long[words];
+		legal = new long[words];
+		moveDirections = new int[size];
+		moveFlips = new int[size];
+		
+		for (int i = 0; i < size; i++) {
+			set(valid, i);
+			
+			if (i % width != 0) {
+				set(notFirstColumn, i);
+			}
+			
+			if (i % width != width - 1) {
+				set(notLastColumn, i);
+			}
+		}
+		
+		shift = new int[8];
+		directionMask = new long[8][];
+		
+		for (int d = 0; d < 8; d++) {
+			shift[d] = DIRECTION_HEIGHT[d] * width + DIRECTION_WIDTH[d];
+			
+			if (DIRECTION_WIDTH[d] == 1) {
+				directionMask[d] = notFirstColumn;
+			} else if (DIRECTION_WIDTH[d] == -1) {
+				directionMask[d] = notLastColumn;
+			} else {
+				directionMask[d] = valid;
+			}
+		}
+	}
+	
+	/**
+	 * Returns a copy of this board with the same pieces, holes and free fields. 
+	 * The undo stack of this board is not copied.
+	 * @return a copy of this board
+	 */
+	@Override
+	public Board copy() {
+		Board copy = new BitBoard(getWidth(), getHeight());
+		copyPositions(copy);
+		
+		return copy;
+	}
+	
+	/**
+	 * Changes the piece on the position with the given parameters in the bitsets and 
+	 * in the representation and the frontier of the super class.
+	 * @param width width of the position to be changed
+	 * @param height height of the position to be changed
+	 * @param piece the piece to be set on the position
+	 */
+	@Override
+	protected void changePosition(int width, int height, Piece piece) {
+		int index = height * getWidth() + width;
+		clear(black, index);
+		clear(white, index);
+		clear(holes, index);
+		
+		if (piece != Piece.FREE) {
+			set(bits(piece), index);
+		}
+		
+		super.changePosition(width, height, piece);
+	}
+	
+	/**
+	 * Returns {@code true} if a hole area can be added in the area between the
+	 * two positions with the given parameters , {@code false} otherwise. A hole area 
+	 * can be added only if there are no black and white pieces in the given area.
+	 * @param width1 width of the first position to be checked
+	 * @param height1 height of the first position to be checked
+	 * @param width2 width of the second position to be checked
+	 * @param height2 height of the second position to be checked
+	 * @return {@code true} if a hole area can be added in the area between the
+	 * two positions with the given parameters , {@code false} otherwise
+	 */
+	@Override
+	public boolean possibleHoleArea(int width1, int height1, int width2, int height2) {
+		if (width1 < 0 || width1 > getWidth() - 1) {
+			throw new IllegalArgumentException();
+		} else if (height1 < 0 || height1 > getHeight() - 1) {
+			throw new IllegalArgumentException();
+		} else if (width2 < 0 || width2 > getWidth() - 1) {
+			throw new IllegalArgumentException();
+		} else if (height2 < 0 || height2 > getHeight() - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		boolean result = true;
+		
+		for (int i = height1; i <= height2 && result; i++) {
+			int from = i * getWidth() + width1;
+			int to = i * getWidth() + width2;
+			
+			if (intersectsRange(black, from, to) || intersectsRange(white, from, to)) {
+				result = false;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if there can be set a piece with the color of the given 
+	 * current piece on the position with the given parameters, {@code false} otherwise.
+	 * @param width width of the position to be checked
+	 * @param height height of the position to be checked
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @return {@code true} if there can be set a piece with the color of the given 
+	 * current piece on the position with the given parameters, {@code false} otherwise
+	 */
+	@Override
+	public boolean possiblePositionToSetPiece(int width, int height, Piece current, Piece other) {
+		if (width < 0 || width > getWidth() - 1) {
+			throw new IllegalArgumentException();
+		} else if (height < 0 || height > getHeight() - 1) {
+			throw new IllegalArgumentException();
+		} else if (current == null || other == null || current == other
+				|| (current != Piece.WHITE && current != Piece.BLACK)
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
+		}
+		
+		boolean result = false;
+		int index = height * getWidth() + width;
+		
+		if (!get(black, index) && !get(white, index) && !get(holes, index)) {
+			long[] own = bits(current);
+			long[] opponent = bits(other);
+			Geometry geometry = getGeometry();
+			
+			for (int d = 0; d < 8 && !result; d++) {
+				if (flipsInDirection(geometry, index, d, own, opponent) > 0) {
+					result = true;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Stores all possible moves for the piece with the color of the given current piece in the given list 
+	 * and returns their number. For each move the position, the directions, in which pieces are flipped, 
+	 * and the number of flipped pieces are stored. The list is cleared before and no objects are created, 
+	 * so that the same list can be used again for each position. The moves are not sorted. The moves are only
+	 * computed on the bitsets, if this board has at most {@link #MAX_WORDS} words and the frontier has at least
+	 * {@link #MIN_FRONTIER} positions; otherwise checking each position of the frontier is faster.
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @param moves the list, which stores the possible moves
+	 * @return the number of possible moves
+	 */
+	@Override
+	public int generateMoves(Piece current, Piece other, MoveList moves) {
+		if (current == null || other == null || current == other
+				|| (current != Piece.WHITE && current != Piece.BLACK)
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
+		} else if (moves == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		int result = 0;
+		
+		if (words > MAX_WORDS || getFrontierSize() < MIN_FRONTIER) {
+			result = super.generateMoves(current, other, moves);
+		} else {
+			result = collectMoves(bits(current), bits(other), moves);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Computes the possible moves for the pieces in the given bitset against the pieces in the other given
+	 * bitset on the bitsets, stores them in the given list and returns their number. All moves are positions
+	 * of the frontier, so that only the words, which contain the frontier, are collected.
+	 * @param own the positions of the pieces, which are set
+	 * @param opponent the positions of the pieces, which are flipped
+	 * @param moves the list, which stores the possible moves
+	 * @return the number of possible moves
+	 */
+	private int collectMoves(long[] own, long[] opponent, MoveList moves) {
+		moves.clear();
+		int frontierSize = getFrontierSize();
+		long frontierWords = 0L;
+		
+		for (int i = 0; i < frontierSize; i++) {
+			int position = getFrontierPosition(i);
+			set(frontier, position);
+			frontierWords |= 1L << (position >>> 6);
+		}
+		
+		for (int d = 0; d < 8; d++) {
+			computeMoves(own, opponent, frontierWords, d);
+		}
+		
+		for (long mask = frontierWords; mask != 0L; mask &= mask - 1) {
+			int i = Long.numberOfTrailingZeros(mask);
+			long word = legal[i];
+			frontier[i] = 0L;
+			legal[i] = 0L;
+			
+			while (word != 0) {
+				int index = (i << 6) + Long.numberOfTrailingZeros(word);
+				moves.add(index, moveDirections[index], moveFlips[index]);
+				moveDirections[index] = 0;
+				moveFlips[index] = 0;
+				word &= word - 1;
+			}
+		}
+		
+		return moves.size();
+	}
+	
+	/**
+	 * Computes the possible moves for the pieces in the given bitset against the pieces in the other given
+	 * bitset, which flip pieces in the given direction, and adds them to the temporary bitset for the possible
+	 * moves. The runs of the other pieces begin next to the positions of the frontier and are extended by one
+	 * shift per step; a run of {@code k} pieces, which reaches an own piece, makes the position of the frontier
+	 * {@code k + 1} steps back a move flipping the run in this direction. The words, which contain a part of a
+	 * run, are kept as the bits of a mask, and each step only computes these words and the words, which the
+	 * shift reaches from them, so that the cost grows with the frontier and the runs, but not with the size of
+	 * this board. A board has at most 40 words, so that one mask is enough.
+	 * @param own the positions of the pieces, which are set
+	 * @param opponent the positions of the pieces, which are flipped
+	 * @param frontierWords the words, which contain the frontier, as the bits of a mask
+	 * @param direction the direction, in which the pieces are flipped
+	 */
+	private void computeMoves(long[] own, long[] opponent, long frontierWords, int direction) {
+		int amount = shift[direction];
+		long[] mask = directionMask[direction];
+		long[] source = frontier;
+		long active = frontierWords;
+		
+		for (int flips = 0; active != 0L; flips++) {
+			long reached = active | (active >>> 1);
+			
+			if (amount > 0) {
+				reached = (active | (active << 1)) & wordMask;
+			}
+			
+			active = 0L;
+			
+			while (reached != 0L) {
+				int i = Long.numberOfTrailingZeros(reached);
+				
+				if (amount > 0) {
+					i = 63 - Long.numberOfLeadingZeros(reached);
+				}
+				
+				reached ^= 1L << i;
+				long word = shiftWord(source, i, amount) & mask[i];
+				
+				if (flips > 0) {
+					long found = word & own[i];
+					
+					while (found != 0L) {
+						int index = (i << 6) + Long.numberOfTrailingZeros(found) - ((flips + 1) * amount);
+						legal[index >>> 6] |= 1L << index;
+						moveDirections[index] |= 1 << direction;
+						moveFlips[index] += flips;
+						found &= found - 1;
+					}
+				}
+				
+				word &= opponent[i];
+				run[i] = word;
+				
+				if (word != 0L) {
+					active |= 1L << i;
+				}
+			}
+			
+			source = run;
+		}
+	}
+	
+	/**
+	 * Returns the word with the given index of the given bitset, which is shifted by the given amount of
+	 * positions. The words are shifted in the order, in which a shift of the bitset in place does not read
+	 * a word, which was already shifted.
+	 * @param source the bitset to be shifted
+	 * @param i the index of the word
+	 * @param amount the amount of positions, which is positive for a shift to higher indices
+	 * @return the shifted word of the bitset
+	 */
+	private long shiftWord(long[] source, int i, int amount) {
+		long result = 0L;
+		
+		if (amount > 0) {
+			result = source[i] << amount;
+			
+			if (i > 0) {
+				result |= source[i - 1] >>> (64 - amount);
+			}
+		} else {
+			result = source[i] >>> -amount;
+			
+			if (i < words - 1) {
+				result |= source[i + 1] << (64 + amount);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the number of pieces of the other color, which are flipped in the given direction,
+	 * if a piece is set on the given position. The path is searched along the precomputed ray of the position.
+	 * @param geometry the rays of this board
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param direction the direction to be checked
+	 * @param own the positions of the pieces, which are set
+	 * @param opponent the positions of the pieces, which are flipped
+	 * @return the number of pieces of the other color, which are flipped in the given direction
+	 */
+	private int flipsInDirection(Geometry geometry, int position, int direction, long[] own, long[] opponent) {
+		int step = geometry.getSteps()[direction];
+		int length = geometry.getLengths()[(position << 3) + direction];
+		int p = position + step;
+		int count = 0;
+		
+		while (count < length && get(opponent, p)) {
+			count++;
+			p += step;
+		}
+		
+		int result = 0;
+		
+		if (count > 0 && count < length && get(own, p)) {
+			result = count;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if one of the positions between the two given indices in the given bitset
+	 * is set, {@code false} otherwise.
+	 * @param bits the bitset to be checked
+	 * @param from the first index to be checked
+	 * @param to the last index to be checked
+	 * @return {@code true} if one of the positions between the two given indices is set, {@code false} otherwise
+	 */
+	private boolean intersectsRange(long[] bits, int from, int to) {
+		boolean result = false;
+		
+		for (int i = from; i <= to && !result; i++) {
+			if ((i & 63) == 0 && i + 63 <= to) {
+				result = bits[i >>> 6] != 0L;
+				i += 63;
+			} else {
+				result = get(bits, i);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the bitset, which stores the positions of the given piece.
+	 * @param piece the given piece
+	 * @return the bitset, which stores the positions of the given piece
+	 */
+	private long[] bits(Piece piece) {
+		long[] result = null;
+		
+		if (piece == Piece.BLACK) {
+			result = black;
+		} else if (piece == Piece.WHITE) {
+			result = white;
+		} else if (piece == Piece.HOLE) {
+			result = holes;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if the position with the given index is set in the given bitset, {@code false} otherwise.
+	 * @param bits the bitset to be checked
+	 * @param index the index of the position
+	 * @return {@code true} if the position with the given index is set in the given bitset, {@code false} otherwise
+	 */
+	private static boolean get(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0L;
+	}
+	
+	/**
+	 * Sets the position with the given index in the given bitset.
+	 * @param bits the bitset to be changed
+	 * @param index the index of the position
+	 */
+	private static void set(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+	
+	/**
+	 * Clears the position with the given index in the given bitset.
+	 * @param bits the bitset to be changed
+	 * @param index the index of the position
+	 */
+	private static void clear(long[] bits, int index) {
+		bits[index >>> 6] &= ~(1L << index);
+	}
+	
+}
@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -8,6 +10,12 @@ import java.util.List;
  */
 public class Board {
 
+	/** the horizontal steps of the eight directions, in which pieces can be flipped */
+	protected static final int[] DIRECTION_WIDTH = {1, -1, 0, 0, 1, -1, 1, -1};
+	
+	/** the vertical steps of the eight directions, in which pieces can be flipped */
+	protected static final int[] DIRECTION_HEIGHT = {0, 0, 1, -1, 1, 1, -1, -1};
+	
 	/** width of the board */
 	private int width;
 	
@@ -17,6 +25,54 @@ public class Board {
 	/** representation of the board */
 	private Piece[][] board;
 	
+	/** the piece on each position in the form {@code height * width + width} */
+	private Piece[] cells;
+	
+	/** the rays of this board for the current holes or {@code null} if the holes have changed */
+	private Geometry cachedGeometry;
+	
+	/** the number of black and white pieces around each position */
+	private int[] neighbours;
+	
+	/** the free positions next to at least one black or white piece */
+	private int[] frontier;
+	
+	/** the index of each position in the frontier or -1 if the position is not in the frontier */
+	private int[] frontierIndex;
+	
+	/** the number of positions in the frontier */
+	private int frontierSize;
+	
+	/** the undo stack, which stores the flipped pieces and the position of each move */
+	private int[] undo;
+	
+	/** the number of values on the undo stack */
+	private int undoSize;
+	
+	/** the number of moves on the undo stack */
+	private int undoMoves;
+	
+	/** the amount of the holes, free fields, black pieces and white pieces on this board */
+	private int[] counts;
+	
+	/** the version of this board, which is increased with each change of this board */
+	private long version;
+	
+	/** the possible moves of each piece, which were generated for a version of this board */
+	private MoveList[] cachedMoves;
+	
+	/** the version of this board, for which the possible moves of each piece were generated, or -1 */
+	private long[] cachedVersions;
+	
+	/** the regions of the free fields, which are updated with each change after they were requested, or {@code null} */
+	private Regions regions;
+	
+	/** the keys for the hashes of this board */
+	private Zobrist zobrist;
+	
+	/** the hash of this board for each symmetry of this board */
+	private long[] hashes;
+	
 	/**
 	 * Constructs a new empty board with the given width and height.
 	 * @param width width of the board
@@ -32,10 +88,28 @@ public class Board {
 		this.width = width;
 		this.height = height;
 		board = new Piece[height][width];
+		cells = new Piece[width * height];
+		neighbours = new int[width * height];
+		frontier = new int[width * height];
+		frontierIndex = new int[width * height];
+		frontierSize = 0;
+		undo = new int[width * height];
+		undoSize = 0;
+		undoMoves = 0;
+		counts = new int[Piece.values().length];
+		counts[Piece.FREE.ordinal()] = width * height;
+		version = 0L;
+		cachedMoves = new MoveList[Piece.values().length];
+		cachedVersions = new long[Piece.values().length];
+		Arrays.fill(cachedVersions, -1L);
+		zobrist = Zobrist.getInstance(width, height);
+		hashes = new long[zobrist.getSymmetries()];
 		
 		for (int i = 0; i < height; i++) {
 			for (int j = 0; j < width; j++) {
 				board[i][j] = Piece.FREE;
+				cells[i * width + j] = Piece.FREE;
+				frontierIndex[i * width + j] = -1;
 			}
 		}
 	}
@@ -57,13 +131,198 @@ public class Board {
 	}
 	
 	/**
-	 * Returns this board's representation.
+	 * Returns a copy of this board with the same pieces, holes and free fields. 
+	 * The undo stack of this board is not copied.
+	 * @return a copy of this board
+	 */
+	public Board copy() {
+		Board copy = new Board(width, height);
+		copyPositions(copy);
+		
+		return copy;
+	}
+	
+	/**
+	 * Sets all pieces and holes of this board on the given empty board with the same width and height.
+	 * @param copy the given empty board
+	 */
+	protected void copyPositions(Board copy) {
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				if (board[i][j] != Piece.FREE) {
+					copy.changePosition(j, i, board[i][j]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns this board's representation. The representation must not be changed directly, 
+	 * because the frontier of this board would not be updated. Use {@link #setPosition} instead.
 	 * @return this board's representation
 	 */
 	public Piece[][] getBoard() {
 		return board;
 	}
 	
+	/**
+	 * Returns the number of positions in the frontier of this board. The frontier consists of all 
+	 * free positions next to at least one black or white piece. Only these positions can be possible moves.
+	 * @return the number of positions in the frontier of this board
+	 */
+	public int getFrontierSize() {
+		return frontierSize;
+	}
+	
+	/**
+	 * Returns the position in the frontier of this board with the given index. The position with 
+	 * width {@code w} and height {@code h} is returned as {@code h * width of the board + w}.
+	 * @param index the index in the frontier
+	 * @return the position in the frontier of this board with the given index
+	 */
+	public int getFrontierPosition(int index) {
+		if (index < 0 || index > frontierSize - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return frontier[index];
+	}
+	
+	/**
+	 * Returns the version of this board. The version is increased with each change of this board.
+	 * @return the version of this board
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the Zobrist hash of this board, if the player with the given piece moves. The hash considers 
+	 * the holes, the black pieces and the white pieces and is updated with each change of this board.
+	 * @param current the piece of the player, who moves
+	 * @return the Zobrist hash of this board
+	 */
+	public long getHash(Piece current) {
+		if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		long result = hashes[0];
+		
+		if (current == Piece.WHITE) {
+			result ^= zobrist.getWhiteToMove();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the smallest Zobrist hash of all boards, which are the result of a rotation or a reflection 
+	 * of this board, if the player with the given piece moves. All these boards have the same hash.
+	 * @param current the piece of the player, who moves
+	 * @return the smallest Zobrist hash of all symmetric boards
+	 */
+	public long getCanonicalHash(Piece current) {
+		if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		long result = hashes[0];
+		
+		for (int s = 1; s < hashes.length; s++) {
+			if (hashes[s] < result) {
+				result = hashes[s];
+			}
+		}
+		
+		if (current == Piece.WHITE) {
+			result ^= zobrist.getWhiteToMove();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Changes the piece on the position with the given parameters, increases the version and updates 
+	 * the frontier, the hashes and the amounts of the pieces of this board. If a hole is added or removed, 
+	 * the rays are computed again when they are needed. All changes of the representation of this board 
+	 * are made by this method.
+	 * @param width width of the position to be changed
+	 * @param height height of the position to be changed
+	 * @param piece the piece to be set on the position
+	 */
+	protected void changePosition(int width, int height, Piece piece) {
+		Piece old = board[height][width];
+		board[height][width] = piece;
+		counts[old.ordinal()]--;
+		counts[piece.ordinal()]++;
+		version++;
+		int position = height * this.width + width;
+		cells[position] = piece;
+		
+		if (old == Piece.HOLE || piece == Piece.HOLE) {
+			cachedGeometry = null;
+		}
+		
+		if (regions != null && (old == Piece.FREE) != (piece == Piece.FREE)) {
+			if (piece == Piece.FREE) {
+				regions.add(position);
+			} else {
+				regions.remove(position);
+			}
+		}
+		
+		for (int s = 0; s < hashes.length; s++) {
+			long[][] keys = zobrist.getKeys(s);
+			hashes[s] ^= keys[old.ordinal()][position] ^ keys[piece.ordinal()][position];
+		}
+		
+		boolean wasPiece = old == Piece.BLACK || old == Piece.WHITE;
+		boolean isPiece = piece == Piece.BLACK || piece == Piece.WHITE;
+		
+		if (wasPiece != isPiece) {
+			for (int i = Math.max(0, height - 1); i <= Math.min(this.height - 1, height + 1); i++) {
+				for (int j = Math.max(0, width - 1); j <= Math.min(this.width - 1, width + 1); j++) {
+					if (i != height || j != width) {
+						int index = i * this.width + j;
+						
+						if (isPiece) {
+							neighbours[index]++;
+						} else {
+							neighbours[index]--;
+						}
+						
+						updateFrontier(index, board[i][j]);
+					}
+				}
+			}
+		}
+		
+		updateFrontier(position, piece);
+	}
+	
+	/**
+	 * Adds the position with the given index to the frontier if it is free and next to a black or white piece, 
+	 * otherwise removes it from the frontier.
+	 * @param index the index of the position
+	 * @param piece the piece on the position
+	 */
+	private void updateFrontier(int index, Piece piece) {
+		if (piece == Piece.FREE && neighbours[index] > 0) {
+			if (frontierIndex[index] == -1) {
+				frontier[frontierSize] = index;
+				frontierIndex[index] = frontierSize;
+				frontierSize++;
+			}
+		} else if (frontierIndex[index] != -1) {
+			frontierSize--;
+			int last = frontier[frontierSize];
+			frontier[frontierIndex[index]] = last;
+			frontierIndex[last] = frontierIndex[index];
+			frontierIndex[index] = -1;
+		}
+	}
+	
 	/**
 	 * Sets a standard board with the given width and height. The middle area consists of two white pieces and 
 	 * two black pieces. All other positions are free fields. 
@@ -77,10 +336,29 @@ public class Board {
 			throw new IllegalArgumentException();
 		}
 		
-		board[(height / 2) - 1][(width / 2) - 1] = Piece.WHITE;
-		board[(height / 2) - 1][width / 2] = Piece.BLACK;
-		board[height / 2][(width / 2) - 1] = Piece.BLACK;
-		board[height / 2][width / 2] = Piece.WHITE;
+		changePosition((width / 2) - 1, (height / 2) - 1, Piece.WHITE);
+		changePosition(width / 2, (height / 2) - 1, Piece.BLACK);
+		changePosition((width / 2) - 1, height / 2, Piece.BLACK);
+		changePosition(width / 2, height / 2, Piece.WHITE);
+	}
+	
+	/**
+	 * Sets the given piece on the position with the given parameters without flipping any pieces. 
+	 * This method is used to load a custom board.
+	 * @param width width of the position to be set
+	 * @param height height of the position to be set
+	 * @param piece the piece to be set on the position
+	 */
+	public void setPosition(int width, int height, Piece piece) {
+		if (width < 0 || width > this.width - 1) {
+			throw new IllegalArgumentException();
+		} else if (height < 0 || height > this.height - 1) {
+			throw new IllegalArgumentException();
+		} else if (piece == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		changePosition(width, height, piece);
 	}
 	
 	/**
@@ -140,7 +418,7 @@ public class Board {
 		
 		for (int i = height1; i <= height2; i++) {
 			for (int j = width1; j <= width2; j++) {
-				board[i][j] = Piece.HOLE;
+				changePosition(j, i, Piece.HOLE);
 			}
 		}
 	}
@@ -167,15 +445,14 @@ public class Board {
 		}
 		
 		boolean result = false;
+		int position = height * this.width + width;
 		
-		if (board[height][width] == Piece.FREE) {
-			for (int i = -1; i <= 1; i++) {
-				for (int j = -1; j <= 1; j++) {
-					if (moveInDirection(width, height, j, i, current, other)) {
-						result = true;
-						
-						return result;
-					}
+		if (board[height][width] == Piece.FREE && neighbours[position] > 0) {
+			Geometry geometry = getGeometry();
+			
+			for (int d = 0; d < 8 && !result; d++) {
+				if (flipsInDirection(geometry, position, d, current, other) > 0) {
+					result = true;
 				}
 			}
 		}
@@ -183,6 +460,68 @@ public class Board {
 		return result;
 	}
 	
+	/**
+	 * Returns the directions, in which pieces are flipped, as a bit mask, if a piece with the color of the 
+	 * given current piece is set on the given position, or 0 if the position is not a possible move.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @return the directions, in which pieces are flipped, as a bit mask or 0
+	 */
+	public int flipDirections(int position, Piece current, Piece other) {
+		if (position < 0 || position > (width * height) - 1) {
+			throw new IllegalArgumentException();
+		} else if (current == null || other == null || current == other 
+				|| (current != Piece.WHITE && current != Piece.BLACK) 
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
+		}
+		
+		int result = 0;
+		
+		if (cells[position] == Piece.FREE && neighbours[position] > 0) {
+			Geometry geometry = getGeometry();
+			
+			for (int d = 0; d < 8; d++) {
+				if (flipsInDirection(geometry, position, d, current, other) > 0) {
+					result |= 1 << d;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the number of pieces, which are flipped, if a piece with the color of the given current 
+	 * piece is set on the given position, or 0 if the position is not a possible move. The board is not changed.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @return the number of pieces, which are flipped, or 0
+	 */
+	public int numberOfFlips(int position, Piece current, Piece other) {
+		if (position < 0 || position > (width * height) - 1) {
+			throw new IllegalArgumentException();
+		} else if (current == null || other == null || current == other 
+				|| (current != Piece.WHITE && current != Piece.BLACK) 
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
+		}
+		
+		int result = 0;
+		
+		if (cells[position] == Piece.FREE && neighbours[position] > 0) {
+			Geometry geometry = getGeometry();
+			
+			for (int d = 0; d < 8; d++) {
+				result += flipsInDirection(geometry, position, d, current, other);
+			}
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * Sets a piece with the color of the given current piece.
 	 * @param width width of the position to be checked
@@ -201,62 +540,241 @@ public class Board {
 			throw new IllegalArgumentException();
 		}
 		
-		board[height][width] = current;
+		int position = height * this.width + width;
+		Geometry geometry = getGeometry();
+		int directions = 0;
+		
+		for (int d = 0; d < 8; d++) {
+			if (flipsInDirection(geometry, position, d, current, other) > 0) {
+				directions |= 1 << d;
+			}
+		}
+		
+		setPiece(position, directions, current);
+	}
+	
+	/**
+	 * Sets a piece with the color of the given current piece on the given position and flips the pieces 
+	 * in the given directions without checking them again. The position and the directions are the ones, 
+	 * which {@link #generateMoves} has stored for a possible move.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param directions the directions, in which pieces are flipped, as a bit mask
+	 * @param current the current piece to be set
+	 */
+	public void setPiece(int position, int directions, Piece current) {
+		if (position < 0 || position > (width * height) - 1) {
+			throw new IllegalArgumentException();
+		} else if (directions < 0 || directions > 255) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		applyMove(position, directions, current, false);
+	}
+	
+	/**
+	 * Makes a move like {@link #setPiece(int, int, Piece)} and pushes the position of the move and the 
+	 * positions of all flipped pieces on the undo stack of this board, so that the move can be taken back 
+	 * with {@link #unmakeMove}. Copying the board to try a move is not necessary.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param directions the directions, in which pieces are flipped, as a bit mask
+	 * @param current the current piece to be set
+	 */
+	public void makeMove(int position, int directions, Piece current) {
+		if (position < 0 || position > (width * height) - 1) {
+			throw new IllegalArgumentException();
+		} else if (directions < 0 || directions > 255) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		applyMove(position, directions, current, true);
+	}
+	
+	/**
+	 * Takes back the last move, which was made with {@link #makeMove}. The position of the move becomes 
+	 * a free field again and all pieces, which were flipped by the move, get their old color back.
+	 */
+	public void unmakeMove() {
+		if (undoMoves == 0) {
+			throw new IllegalStateException();
+		}
+		
+		undoMoves--;
+		undoSize--;
+		int count = undo[undoSize];
+		undoSize--;
+		int position = undo[undoSize];
+		Piece other = Piece.BLACK;
+		
+		if (board[position / width][position % width] == Piece.BLACK) {
+			other = Piece.WHITE;
+		}
+		
+		changePosition(position % width, position / width, Piece.FREE);
 		
-		for (int i = -1; i <= 1; i++) {
-			for (int j = -1; j <= 1; j++) {
-				 if (moveInDirection(width, height, j, i, current, other)) {
-					boolean result = false;
+		for (int i = 0; i < count; i++) {
+			undoSize--;
+			changePosition(undo[undoSize] % width, undo[undoSize] / width, other);
+		}
+	}
+	
+	/**
+	 * Returns the number of moves on the undo stack of this board, which can be taken back.
+	 * @return the number of moves on the undo stack of this board
+	 */
+	public int getUndoMoves() {
+		return undoMoves;
+	}
+	
+	/**
+	 * Sets a piece with the color of the given current piece on the given position and flips the pieces 
+	 * in the given directions. If the move is recorded, the positions of the flipped pieces, the position 
+	 * of the move and the number of flipped pieces are pushed on the undo stack in this order.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param directions the directions, in which pieces are flipped, as a bit mask
+	 * @param current the current piece to be set
+	 * @param record whether the move is pushed on the undo stack
+	 */
+	private void applyMove(int position, int directions, Piece current, boolean record) {
+		Geometry geometry = getGeometry();
+		int count = 0;
+		changePosition(position % width, position / width, current);
+		
+		for (int d = 0; d < 8; d++) {
+			if ((directions & (1 << d)) != 0) {
+				int step = geometry.getSteps()[d];
+				
+				for (int p = position + step; cells[p] != current; p += step) {
+					changePosition(p % width, p / width, current);
 					
-					for (int x = 1; x <= Math.max(this.width, this.height) && !result; x++) {
-						board[height + (x * i)][width + (x * j)] = current;
-						
-						if (board[height + ((x + 1) * i)][width + ((x + 1) * j)] == current) {
-							result = true;
-						}
+					if (record) {
+						push(p);
+						count++;
 					}
 				}
 			}
 		}
+		
+		if (record) {
+			push(position);
+			push(count);
+			undoMoves++;
+		}
 	}
 	
 	/**
-	 * Returns {@code true} if there is a valid path to move from a position with the first given parameters 
-	 * in direction the position with the second given parameters, {@code false} otherwise. 
-	 * A valid path is a path, which begins and ends with a piece with the color of the given current piece and 
-	 * between these two pieces there can be one or more pieces with the color of the given other piece.
-	 * @param width1 width of the first position to be checked
-	 * @param height1 height of the first position to be checked
-	 * @param width2 width of the second position to be checked
-	 * @param height2 height of the second position to be checked
+	 * Pushes the given value on the undo stack of this board. The stack grows if it is full.
+	 * @param value the value to be pushed
+	 */
+	private void push(int value) {
+		if (undoSize == undo.length) {
+			undo = Arrays.copyOf(undo, undo.length * 2);
+		}
+		
+		undo[undoSize] = value;
+		undoSize++;
+	}
+	
+	/**
+	 * Stores all possible moves for the piece with the color of the given current piece in the given list 
+	 * and returns their number. For each move the position, the directions, in which pieces are flipped, 
+	 * and the number of flipped pieces are stored. The list is cleared before and no objects are created, 
+	 * so that the same list can be used again for each position. The moves are not sorted.
 	 * @param current the current piece to be checked
 	 * @param other the other piece to be checked
-	 * @return {@code true} if there is a valid path to move from a position with the first given parameters 
-	 * in direction the position with the second given parameters, {@code false} otherwise
+	 * @param moves the list, which stores the possible moves
+	 * @return the number of possible moves
 	 */
-	private boolean moveInDirection(int width1, int height1, int width2, int height2, Piece current, Piece other) {
-		boolean result = false;
+	public int generateMoves(Piece current, Piece other, MoveList moves) {
+		if (current == null || other == null || current == other 
+				|| (current != Piece.WHITE && current != Piece.BLACK) 
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
+		} else if (moves == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		moves.clear();
+		Geometry geometry = getGeometry();
 		
-		if ((width1 + width2) >= 0 && (width1 + width2) <= (this.width - 1) 
-					&& (height1 + height2) >= 0 && (height1 + height2) <= (this.height - 1) 
-					&& board[height1 + height2][width1 + width2] == other) {
-			boolean quit = false;
+		for (int i = 0; i < frontierSize; i++) {
+			int directions = 0;
+			int flips = 0;
 			
-			for (int k = 2; k <= Math.max(this.width, this.height) && !quit; k++) {
-				if (width1 + (k * width2) >= this.width || height1 + (k * height2) >= this.height 
-							|| width1 + (k * width2) < 0 || height1 + (k * height2) < 0 
-							|| board[height1 + (k * height2)][width1 + (k * width2)] == Piece.HOLE 
-							|| board[height1 + (k * height2)][width1 + (k * width2)] == Piece.FREE) {
-					quit = true;
-				} else if (board[height1 + (k * height2)][width1 + (k * width2)] == current) {
-					result = true;
+			for (int d = 0; d < 8; d++) {
+				int count = flipsInDirection(geometry, frontier[i], d, current, other);
+				
+				if (count > 0) {
+					directions |= 1 << d;
+					flips += count;
 				}
 			}
+			
+			if (directions != 0) {
+				moves.add(frontier[i], directions, flips);
+			}
+		}
+		
+		return moves.size();
+	}
+	
+	/**
+	 * Returns the number of pieces with the color of the given other piece, which are flipped in the given 
+	 * direction, if a piece with the color of the given current piece is set on the given position. A valid 
+	 * path begins and ends with a piece with the color of the given current piece and between these two pieces 
+	 * there can be one or more pieces with the color of the given other piece. The path is searched along the 
+	 * precomputed ray of the position, so that no bounds of the board are checked.
+	 * @param geometry the rays of this board
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param direction the direction to be checked
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @return the number of pieces, which are flipped in the given direction
+	 */
+	private int flipsInDirection(Geometry geometry, int position, int direction, Piece current, Piece other) {
+		int step = geometry.getSteps()[direction];
+		int length = geometry.getLengths()[(position << 3) + direction];
+		int p = position + step;
+		int count = 0;
+		
+		while (count < length && cells[p] == other) {
+			count++;
+			p += step;
+		}
+		
+		int result = 0;
+		
+		if (count > 0 && count < length && cells[p] == current) {
+			result = count;
 		}
 		
 		return result;
 	}
 	
+	/**
+	 * Returns the rays of this board for the current holes. The rays are computed again after a hole 
+	 * has been added or removed.
+	 * @return the rays of this board
+	 */
+	protected Geometry getGeometry() {
+		if (cachedGeometry == null) {
+			BitSet holes = new BitSet(width * height);
+			
+			for (int i = 0; i < cells.length; i++) {
+				if (cells[i] == Piece.HOLE) {
+					holes.set(i);
+				}
+			}
+			
+			cachedGeometry = Geometry.getInstance(width, height, holes);
+		}
+		
+		return cachedGeometry;
+	}
+	
 	/**
 	 * Returns {@code true} if there can be set a piece with the color of the 
 	 * given current piece anywhere on the board, {@code false} otherwise.
@@ -272,17 +790,23 @@ public class Board {
 			throw new IllegalArgumentException();
 		}
 		
-		boolean result = false;
-		
-		for (int i = 0; i < height; i++) {
-			for (int j = 0; j < width; j++) {
-				if (possiblePositionToSetPiece(j, i, current, other)) {
-					result = true;
-				}
-			}
+		return cachedMoves(current, other).size() > 0;
+	}
+	
+	/**
+	 * Returns the number of possible moves for the piece with the color of the given current piece.
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @return the number of possible moves for the piece with the color of the given current piece
+	 */
+	public int numberOfPossibleMoves(Piece current, Piece other) {
+		if (current == null || other == null || current == other 
+				|| (current != Piece.WHITE && current != Piece.BLACK) 
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
 		}
 		
-		return result;
+		return cachedMoves(current, other).size();
 	}
 	
 	/**
@@ -300,26 +824,66 @@ public class Board {
 		}
 		
 		List<Integer[]> possibleMoves = new ArrayList<Integer[]>();
+		MoveList moves = cachedMoves(current, other);
+		int count = moves.size();
+		int[] keys = new int[count];
 		
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				Integer[] position = new Integer[2];
-				
-				if (possiblePositionToSetPiece(i, j, current, other)) {
-					position[0] = i;
-					position[1] = j;
-					possibleMoves.add(position);
-				}
-			}
+		for (int i = 0; i < count; i++) {
+			keys[i] = (moves.getPosition(i) % width) * height + (moves.getPosition(i) / width);
+		}
+		
+		Arrays.sort(keys);
+		
+		for (int i = 0; i < count; i++) {
+			Integer[] position = new Integer[2];
+			position[0] = keys[i] / height;
+			position[1] = keys[i] % height;
+			possibleMoves.add(position);
 		}
 		
 		return possibleMoves;
 	}
 	
+	/**
+	 * Returns the possible moves for the piece with the color of the given current piece in the current 
+	 * version of this board. The moves are generated only once for each version of this board and each piece.
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @return the possible moves for the piece with the color of the given current piece
+	 */
+	private MoveList cachedMoves(Piece current, Piece other) {
+		int index = current.ordinal();
+		
+		if (cachedMoves[index] == null) {
+			cachedMoves[index] = new MoveList(width * height);
+		}
+		
+		if (cachedVersions[index] != version) {
+			generateMoves(current, other, cachedMoves[index]);
+			cachedVersions[index] = version;
+		}
+		
+		return cachedMoves[index];
+	}
 	
+	/**
+	 * Returns the regions of the free fields of this board. The regions are computed when they are requested 
+	 * for the first time and from then on updated with each change of this board, so that a move computes 
+	 * only the region of its field again. Boards, whose regions are never requested, do not maintain them.
+	 * @return the regions of the free fields of this board
+	 */
+	public Regions getRegions() {
+		if (regions == null) {
+			regions = new Regions(width, height);
+			regions.compute(this);
+		}
+		
+		return regions;
+	}
 	
 	/**
-	 * Returns the amount of all the pieces on this board, which have the color of the given piece.
+	 * Returns the amount of all the pieces on this board, which have the color of the given piece. 
+	 * The amount is counted with each change of this board, so that this board is not scanned.
 	 * @param piece the given piece to be checked
 	 * @return the amount of all the pieces on this board, which have the color of the given piece
 	 */
@@ -328,17 +892,23 @@ public class Board {
 			throw new IllegalArgumentException();
 		}
 		
-		int count = 0;
-		
-		for (int i = 0; i < height; i++) {
-			for (int j = 0; j < width; j++) {
-				if (board[i][j] == piece) {
-					count++;
-				}
-			}
-		}
-		
-		return count;
+		return counts[piece.ordinal()];
+	}
+	
+	/**
+	 * Returns the amount of all the free fields on this board.
+	 * @return the amount of all the free fields on this board
+	 */
+	public int numberOfFreeFields() {
+		return counts[Piece.FREE.ordinal()];
+	}
+	
+	/**
+	 * Returns the amount of all the holes on this board.
+	 * @return the amount of all the holes on this board
+	 */
+	public int numberOfHoles() {
+		return counts[Piece.HOLE.ordinal()];
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,528 @@
+/**
+ * This class solves the end of the Othello game perfectly. If the number of free fields on the board is not
+ * greater than the threshold of the solver, the game tree is searched to the end with alpha-beta pruning.
+ * The solver can find the exact difference of the pieces or only whether the game is won, drawn or lost,
+ * which is faster because of the narrow search window. The moves are ordered by the mobility of the other
+ * player after the move (fastest-first) and by the parity of the region of free fields, which contains
+ * the move. Moves in regions with an odd number of free fields are searched first, because the player,
+ * who moves first in such a region, usually also moves last in it. The regions are updated with each move,
+ * so that only the region of the move is computed again. The last three free fields are
+ * searched by specialised methods, which neither generate nor order moves.
+ * @author Delyan Nikolov
+ */
+public class EndgameSolver {
+
+	/** the default maximal number of free fields, which can be solved */
+	public static final int DEFAULT_THRESHOLD = 20;
+	
+	/** the score of a won game in the search for a win, a draw or a loss */
+	public static final int WIN = 1;
+	
+	/** the score of a drawn game in the search for a win, a draw or a loss */
+	public static final int DRAW = 0;
+	
+	/** the score of a lost game in the search for a win, a draw or a loss */
+	public static final int LOSS = -1;
+	
+	/** a score, which is greater than all other scores */
+	private static final int INFINITY = 10000;
+	
+	/** the smallest number of free fields, for which the moves are ordered by the mobility of the other player */
+	private static final int FASTEST_FIRST_EMPTIES = 7;
+	
+	/** the maximal number of free fields, which can be solved */
+	private int threshold;
+	
+	/** the board, which is solved */
+	private Board board;
+	
+	/** the next free field of each position in the list of the free fields */
+	private int[] next;
+	
+	/** the previous free field of each position in the list of the free fields */
+	private int[] previous;
+	
+	/** the position, which begins and ends the list of the free fields */
+	private int head;
+	
+	/** the regions of the free fields, which are updated with each move of the search */
+	private Regions regions;
+	
+	/** the lists of the possible moves for each ply */
+	private MoveList[] moves;
+	
+	/** the keys, by which the possible moves of each ply are sorted */
+	private int[][] keys;
+	
+	/** the list of the possible moves of the other player for the ordering */
+	private MoveList replies;
+	
+	/** the number of searched nodes */
+	private long nodes;
+	
+	/** the score of the last solved position */
+	private int score;
+	
+	/**
+	 * Constructs a new endgame solver, which solves positions with at most the given number of free fields.
+	 * @param threshold the maximal number of free fields, which can be solved
+	 */
+	public EndgameSolver(int threshold) {
+		if (threshold < 1 || threshold > 64) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * Returns the maximal number of free fields, which can be solved.
+	 * @return the maximal number of free fields, which can be solved
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+	
+	/**
+	 * Returns {@code true} if the number of free fields on the given board is not greater than
+	 * the threshold of this solver, {@code false} otherwise.
+	 * @param board the board to be checked
+	 * @return {@code true} if the given board can be solved, {@code false} otherwise
+	 */
+	public boolean canSolve(Board board) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		return board.numberOfFreeFields() <= threshold;
+	}
+	
+	/**
+	 * Solves the given board for the piece with the color of the given current piece and returns the best move
+	 * in the form {@code height * width of the board + width} or {@link Search#PASS}. If the given exact flag is
+	 * set, the score is the difference of the pieces at the end of the game with perfect play. Otherwise the score
+	 * is {@link #WIN}, {@link #DRAW} or {@link #LOSS}. The given board is not changed.
+	 * @param board the board to be solved
+	 * @param current the current piece
+	 * @param exact whether the exact difference of the pieces is searched
+	 * @return the best move for the piece with the color of the given current piece
+	 */
+	public int solve(Board board, Piece current, boolean exact) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (!canSolve(board)) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.board = board.copy();
+		int size = board.getWidth() * board.getHeight();
+		int empties = board.numberOfFreeFields();
+		next = new int[size + 1];
+		previous = new int[size + 1];
+		regions = new Regions(board.getWidth(), board.getHeight());
+		regions.compute(board);
+		moves = new MoveList[(2 * empties) + 2];
+		keys = new int[(2 * empties) + 2][];
+		replies = new MoveList(size);
+		nodes = 0L;
+		head = size;
+		next[head] = head;
+		previous[head] = head;
+		
+		for (int i = size - 1; i >= 0; i--) {
+			if (board.getBoard()[i / board.getWidth()][i % board.getWidth()] == Piece.FREE) {
+				insert(i, head);
+			}
+		}
+		
+		Piece other = opponent(current);
+		int alpha = -INFINITY;
+		int beta = INFINITY;
+		
+		if (!exact) {
+			alpha = LOSS;
+			beta = WIN;
+		}
+		
+		int result = Search.PASS;
+		MoveList list = moveList(0);
+		int count = this.board.generateMoves(current, other, list);
+		
+		if (count == 0) {
+			score = search(current, other, empties, alpha, beta, 0, false);
+		} else {
+			order(current, other, empties, 0, list);
+			score = -INFINITY;
+			
+			for (int i = 0; i < count && score < beta; i++) {
+				int value = -searchMove(list.getPosition(i), list.getDirections(i), current, other, empties,
+						-beta, -Math.max(alpha, score), 1);
+				
+				if (value > score) {
+					score = value;
+					result = list.getPosition(i);
+				}
+			}
+		}
+		
+		if (!exact) {
+			score = Integer.signum(score);
+		}
+		
+		this.board = null;
+		regions = null;
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the last solved position from the view of the current player. The score is the
+	 * difference of the pieces or {@link #WIN}, {@link #DRAW} or {@link #LOSS}.
+	 * @return the score of the last solved position
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * Returns the number of nodes, which were searched by the last solution.
+	 * @return the number of nodes, which were searched by the last solution
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Makes the given move, returns the score of the resulting position from the view of the other
+	 * piece and takes the move back. The regions of the free fields are only updated, if the moves
+	 * of the resulting position are ordered.
+	 * @param position the position of the move
+	 * @param directions the directions, in which pieces are flipped, as a bit mask
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param empties the number of free fields before the move
+	 * @param alpha the lower bound of the score
+	 * @param beta the upper bound of the score
+	 * @param ply the distance of the resulting position to the root of the search
+	 * @return the score of the resulting position from the view of the other piece
+	 */
+	private int searchMove(int position, int directions, Piece current, Piece other, int empties,
+			int alpha, int beta, int ply) {
+		board.makeMove(position, directions, current);
+		remove(position);
+		boolean ordered = empties > 4;
+		
+		if (ordered) {
+			regions.remove(position);
+		}
+		
+		int result = search(other, current, empties - 1, alpha, beta, ply, false);
+		
+		if (ordered) {
+			regions.add(position);
+		}
+		
+		insert(position, next[position]);
+		board.unmakeMove();
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the current position from the view of the given current piece. The last three free
+	 * fields are searched by the specialised methods, the other positions by an alpha-beta search of all moves.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param empties the number of free fields
+	 * @param alpha the lower bound of the score
+	 * @param beta the upper bound of the score
+	 * @param ply the distance to the root of the search
+	 * @param passed whether the other player has passed before
+	 * @return the score of the current position
+	 */
+	private int search(Piece current, Piece other, int empties, int alpha, int beta, int ply, boolean passed) {
+		int result = 0;
+		
+		if (empties == 0) {
+			nodes++;
+			result = difference(current, other);
+		} else if (empties == 1) {
+			result = lastOne(current, other, next[head]);
+		} else if (empties == 2) {
+			result = lastTwo(current, other, next[head], next[next[head]], alpha, beta, false);
+		} else if (empties == 3) {
+			result = lastThree(current, other, alpha, beta, false);
+		} else {
+			nodes++;
+			MoveList list = moveList(ply);
+			int count = board.generateMoves(current, other, list);
+			
+			if (count == 0) {
+				if (passed) {
+					result = difference(current, other);
+				} else {
+					result = -search(other, current, empties, -beta, -alpha, ply + 1, true);
+				}
+			} else {
+				order(current, other, empties, ply, list);
+				result = -INFINITY;
+				
+				for (int i = 0; i < count && result < beta; i++) {
+					int value = -searchMove(list.getPosition(i), list.getDirections(i), current, other, empties,
+							-beta, -Math.max(alpha, result), ply + 1);
+					
+					if (value > result) {
+						result = value;
+					}
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the position with the given last free field from the view of the given current piece.
+	 * The score is computed from the number of flipped pieces without making the move.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param position the last free field
+	 * @return the score of the position with the given last free field
+	 */
+	private int lastOne(Piece current, Piece other, int position) {
+		nodes++;
+		int result = difference(current, other);
+		int flips = board.numberOfFlips(position, current, other);
+		
+		if (flips > 0) {
+			result += (2 * flips) + 1;
+		} else {
+			flips = board.numberOfFlips(position, other, current);
+			
+			if (flips > 0) {
+				result -= (2 * flips) + 1;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the position with the two given last free fields from the view of the given current piece.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param first the first free field
+	 * @param second the second free field
+	 * @param alpha the lower bound of the score
+	 * @param beta the upper bound of the score
+	 * @param passed whether the other player has passed before
+	 * @return the score of the position with the two given last free fields
+	 */
+	private int lastTwo(Piece current, Piece other, int first, int second, int alpha, int beta, boolean passed) {
+		nodes++;
+		int result = -INFINITY;
+		int directions = board.flipDirections(first, current, other);
+		
+		if (directions != 0) {
+			board.makeMove(first, directions, current);
+			result = -lastOne(other, current, second);
+			board.unmakeMove();
+		}
+		
+		directions = board.flipDirections(second, current, other);
+		
+		if (directions != 0 && result < beta) {
+			board.makeMove(second, directions, current);
+			result = Math.max(result, -lastOne(other, current, first));
+			board.unmakeMove();
+		}
+		
+		if (result == -INFINITY) {
+			if (passed) {
+				result = difference(current, other);
+			} else {
+				result = -lastTwo(other, current, first, second, -beta, -alpha, true);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the position with the last three free fields from the view of the given current piece.
+	 * A free field, which is not next to the other free fields, forms a region with an odd number of free fields
+	 * and is searched first.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param alpha the lower bound of the score
+	 * @param beta the upper bound of the score
+	 * @param passed whether the other player has passed before
+	 * @return the score of the position with the last three free fields
+	 */
+	private int lastThree(Piece current, Piece other, int alpha, int beta, boolean passed) {
+		nodes++;
+		int first = next[head];
+		int second = next[first];
+		int third = next[second];
+		
+		if (adjacent(first, second) || adjacent(first, third)) {
+			if (!adjacent(second, first) && !adjacent(second, third)) {
+				int swap = first;
+				first = second;
+				second = swap;
+			} else if (!adjacent(third, first) && !adjacent(third, second)) {
+				int swap = first;
+				first = third;
+				third = swap;
+			}
+		}
+		
+		int result = -INFINITY;
+		int directions = board.flipDirections(first, current, other);
+		
+		if (directions != 0) {
+			board.makeMove(first, directions, current);
+			result = -lastTwo(other, current, second, third, -beta, -Math.max(alpha, result), false);
+			board.unmakeMove();
+		}
+		
+		directions = board.flipDirections(second, current, other);
+		
+		if (directions != 0 && result < beta) {
+			board.makeMove(second, directions, current);
+			result = Math.max(result, -lastTwo(other, current, first, third, -beta, -Math.max(alpha, result), false));
+			board.unmakeMove();
+		}
+		
+		directions = board.flipDirections(third, current, other);
+		
+		if (directions != 0 && result < beta) {
+			board.makeMove(third, directions, current);
+			result = Math.max(result, -lastTwo(other, current, first, second, -beta, -Math.max(alpha, result), false));
+			board.unmakeMove();
+		}
+		
+		if (result == -INFINITY) {
+			if (passed) {
+				result = difference(current, other);
+			} else {
+				result = -lastThree(other, current, -beta, -alpha, true);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Sorts the given possible moves, so that the best moves are searched first. With many free fields the moves,
+	 * after which the other player has the fewest possible moves, are searched first. Moves in regions with an odd
+	 * number of free fields are preferred to moves in regions with an even number of free fields.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param empties the number of free fields
+	 * @param ply the distance to the root of the search
+	 * @param list the possible moves
+	 */
+	private void order(Piece current, Piece other, int empties, int ply, MoveList list) {
+		if (keys[ply] == null) {
+			keys[ply] = new int[board.getWidth() * board.getHeight()];
+		}
+		
+		int[] key = keys[ply];
+		
+		for (int i = 0; i < list.size(); i++) {
+			int position = list.getPosition(i);
+			key[i] = regions.getSize(position) & 1;
+			
+			if (empties >= FASTEST_FIRST_EMPTIES) {
+				board.makeMove(position, list.getDirections(i), current);
+				key[i] -= 2 * board.generateMoves(other, current, replies);
+				board.unmakeMove();
+			}
+		}
+		
+		for (int i = 1; i < list.size(); i++) {
+			for (int j = i; j > 0 && key[j] > key[j - 1]; j--) {
+				int swap = key[j];
+				key[j] = key[j - 1];
+				key[j - 1] = swap;
+				list.swap(j, j - 1);
+			}
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the two given positions are next to each other, {@code false} otherwise.
+	 * @param first the first position
+	 * @param second the second position
+	 * @return {@code true} if the two given positions are next to each other, {@code false} otherwise
+	 */
+	private boolean adjacent(int first, int second) {
+		int width = board.getWidth();
+		
+		return Math.abs((first % width) - (second % width)) <= 1 && Math.abs((first / width) - (second / width)) <= 1;
+	}
+	
+	/**
+	 * Returns the difference of the pieces from the view of the given current piece.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @return the difference of the pieces
+	 */
+	private int difference(Piece current, Piece other) {
+		return board.numberOfPieces(current) - board.numberOfPieces(other);
+	}
+	
+	/**
+	 * Inserts the given position before the given position in the list of the free fields.
+	 * @param position the position to be inserted
+	 * @param before the position, before which the given position is inserted
+	 */
+	private void insert(int position, int before) {
+		next[position] = before;
+		previous[position] = previous[before];
+		next[previous[before]] = position;
+		previous[before] = position;
+	}
+	
+	/**
+	 * Removes the given position from the list of the free fields. The links of the given position are kept,
+	 * so that the position can be inserted again at the same place.
+	 * @param position the position to be removed
+	 */
+	private void remove(int position) {
+		next[previous[position]] = next[position];
+		previous[next[position]] = previous[position];
+	}
+	
+	/**
+	 * Returns the list of the possible moves for the given ply. The list is created at the first use.
+	 * @param ply the distance to the root of the search
+	 * @return the list of the possible moves for the given ply
+	 */
+	private MoveList moveList(int ply) {
+		if (moves[ply] == null) {
+			moves[ply] = new MoveList(board.getWidth() * board.getHeight());
+		}
+		
+		return moves[ply];
+	}
+	
+	/**
+	 * Returns the piece of the other player.
+	 * @param piece the piece of the one player
+	 * @return the piece of the other player
+	 */
+	private static Piece opponent(Piece piece) {
+		Piece result = Piece.BLACK;
+		
+		if (piece == Piece.BLACK) {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+}
@@ -0,0 +1,473 @@
+/**
+ * This class evaluates positions in the Othello game with pattern tables. A pattern is a short sequence of
+ * positions, whose pieces are encoded as a number in base 3 (0 for a free field, 1 for a piece of the current
+ * player and 2 for a piece of the other player). The number is the index of the score of the pattern in a
+ * precomputed table, so that the evaluation only reads the board and the tables and creates no objects.
+ * <p>
+ * The patterns are generated for the geometry of a board, so that boards of all sizes and with holes are
+ * evaluated. A corner is a position, which is blocked by the edge of the board or by a hole in each of the
+ * four lines through it, so that its piece can never be flipped. Each corner forms a pattern with its
+ * neighbours, in which the corner is rewarded and the neighbours of a free corner are punished. The edges
+ * of the board are split at the holes into lines, which are covered by patterns of at most eight positions,
+ * and the diagonals from the corners of the board form patterns of at most eight positions. In these line
+ * patterns the pieces, which cannot be flipped along the line, are rewarded more than the other pieces.
+ * The holes must not be changed after the construction of an evaluation.
+ * @author Delyan Nikolov
+ */
+public class Evaluation {
+
+	/** the maximal number of positions of a line pattern */
+	private static final int LINE_LENGTH = 8;
+	
+	/** the number of positions of a corner pattern: the corner and its eight neighbours */
+	private static final int CORNER_LENGTH = 9;
+	
+	/** the score of a corner */
+	private static final int CORNER = 25;
+	
+	/** the score of a piece next to a free corner in a line of the board */
+	private static final int C_SQUARE = 6;
+	
+	/** the score of a piece diagonally next to a free corner */
+	private static final int X_SQUARE = 12;
+	
+	/** the score of a piece, which cannot be flipped along a line or is next to a corner with the same color */
+	private static final int STABLE = 4;
+	
+	/** the score of a piece in a line pattern, which can be flipped along the line */
+	private static final int EDGE = 1;
+	
+	/** the flag of a line pattern, whose first position is next to the edge of the board or a hole */
+	private static final int FIRST_BLOCKED = 1;
+	
+	/** the flag of a line pattern, whose last position is next to the edge of the board or a hole */
+	private static final int LAST_BLOCKED = 2;
+	
+	/** the index of the opposite direction of each direction of the board */
+	private static final int[] OPPOSITE = {1, 0, 3, 2, 7, 6, 5, 4};
+	
+	/** the tables of the line patterns for each length and each combination of the flags */
+	private static final int[][][] LINE_TABLES = new int[LINE_LENGTH + 1][4][];
+	
+	/** the table of the corner patterns */
+	private static final int[] CORNER_TABLE;
+	
+	static {
+		for (int length = 2; length <= LINE_LENGTH; length++) {
+			for (int flags = 0; flags < 4; flags++) {
+				LINE_TABLES[length][flags] = lineTable(length, flags);
+			}
+		}
+		
+		CORNER_TABLE = cornerTable();
+	}
+	
+	/** width of the evaluated boards */
+	private int width;
+	
+	/** height of the evaluated boards */
+	private int height;
+	
+	/** the holes of the evaluated boards */
+	private boolean[] holes;
+	
+	/** the positions of all patterns one after another, -1 for a position outside the board or with a hole */
+	private int[] positions;
+	
+	/** the height of each position of all patterns, -1 for a position outside the board or with a hole */
+	private int[] rows;
+	
+	/** the width of each position of all patterns */
+	private int[] columns;
+	
+	/** the index of the first position of each pattern */
+	private int[] starts;
+	
+	/** the table of each pattern */
+	private int[][] tables;
+	
+	/** the number of patterns */
+	private int patterns;
+	
+	/**
+	 * Constructs a new evaluation for the boards with the width, the height and the holes of the given board.
+	 * @param board the board, whose geometry is evaluated
+	 */
+	public Evaluation(Board board) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		width = board.getWidth();
+		height = board.getHeight();
+		holes = new boolean[width * height];
+		
+		for (int i = 0; i < holes.length; i++) {
+			holes[i] = board.getBoard()[i / width][i % width] == Piece.HOLE;
+		}
+		
+		int capacity = (10 * (width + height)) + (4 * LINE_LENGTH) + (holes.length * CORNER_LENGTH);
+		positions = new int[capacity];
+		starts = new int[capacity + 1];
+		tables = new int[capacity][];
+		patterns = 0;
+		
+		for (int i = 0; i < holes.length; i++) {
+			if (isCorner(i % width, i / width)) {
+				addCorner(i % width, i / width);
+			}
+		}
+		
+		addEdge(0, 0, 1, 0, width);
+		addEdge(0, height - 1, 1, 0, width);
+		addEdge(0, 0, 0, 1, height);
+		addEdge(width - 1, 0, 0, 1, height);
+		addDiagonal(0, 0, 1, 1);
+		addDiagonal(width - 1, 0, -1, 1);
+		addDiagonal(0, height - 1, 1, -1);
+		addDiagonal(width - 1, height - 1, -1, -1);
+		rows = new int[starts[patterns]];
+		columns = new int[starts[patterns]];
+		
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = -1;
+			
+			if (positions[i] >= 0) {
+				rows[i] = positions[i] / width;
+				columns[i] = positions[i] % width;
+			}
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the given board has the width, the height and the holes, for which this evaluation
+	 * was constructed, {@code false} otherwise.
+	 * @param board the board to be checked
+	 * @return {@code true} if this evaluation can evaluate the given board, {@code false} otherwise
+	 */
+	public boolean matches(Board board) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		boolean result = board.getWidth() == width && board.getHeight() == height;
+		
+		for (int i = 0; i < holes.length && result; i++) {
+			result = holes[i] == (board.getBoard()[i / width][i % width] == Piece.HOLE);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the given board from the view of the given current piece. The score is the sum of the
+	 * scores of all patterns. The board must have the geometry, for which this evaluation was constructed.
+	 * @param board the board to be evaluated
+	 * @param current the current piece
+	 * @return the score of the given board from the view of the given current piece
+	 */
+	public int evaluate(Board board, Piece current) {
+		Piece[][] pieces = board.getBoard();
+		int result = 0;
+		
+		for (int p = 0; p < patterns; p++) {
+			int index = 0;
+			
+			for (int i = starts[p + 1] - 1; i >= starts[p]; i--) {
+				index *= 3;
+				
+				if (rows[i] >= 0) {
+					Piece piece = pieces[rows[i]][columns[i]];
+					
+					if (piece == current) {
+						index += 1;
+					} else if (piece == Piece.BLACK || piece == Piece.WHITE) {
+						index += 2;
+					}
+				}
+			}
+			
+			result += tables[p][index];
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the number of patterns of this evaluation.
+	 * @return the number of patterns of this evaluation
+	 */
+	public int getPatterns() {
+		return patterns;
+	}
+	
+	/**
+	 * Returns {@code true} if the position with the given parameters is a corner, {@code false} otherwise.
+	 * A corner is blocked by the edge of the board or by a hole in each of the four lines through it.
+	 * @param w width of the position
+	 * @param h height of the position
+	 * @return {@code true} if the position with the given parameters is a corner, {@code false} otherwise
+	 */
+	private boolean isCorner(int w, int h) {
+		boolean result = !holes[(h * width) + w];
+		
+		for (int d = 0; d < 8 && result; d++) {
+			result = isBlocked(w + Board.DIRECTION_WIDTH[d], h + Board.DIRECTION_HEIGHT[d])
+					|| isBlocked(w + Board.DIRECTION_WIDTH[OPPOSITE[d]], h + Board.DIRECTION_HEIGHT[OPPOSITE[d]]);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if the position with the given parameters is outside the board or a hole,
+	 * {@code false} otherwise.
+	 * @param w width of the position
+	 * @param h height of the position
+	 * @return {@code true} if the position is outside the board or a hole, {@code false} otherwise
+	 */
+	private boolean isBlocked(int w, int h) {
+		return w < 0 || w >= width || h < 0 || h >= height || holes[(h * width) + w];
+	}
+	
+	/**
+	 * Adds the pattern of the corner with the given parameters and its neighbours in the order of the directions
+	 * of the board.
+	 * @param w width of the corner
+	 * @param h height of the corner
+	 */
+	private void addCorner(int w, int h) {
+		int start = starts[patterns];
+		positions[start] = (h * width) + w;
+		
+		for (int d = 0; d < 8; d++) {
+			int x = w + Board.DIRECTION_WIDTH[d];
+			int y = h + Board.DIRECTION_HEIGHT[d];
+			positions[start + d + 1] = -1;
+			
+			if (!isBlocked(x, y)) {
+				positions[start + d + 1] = (y * width) + x;
+			}
+		}
+		
+		addPattern(CORNER_LENGTH, CORNER_TABLE);
+	}
+	
+	/**
+	 * Adds the patterns of the edge of the board, which begins on the position with the given parameters and has
+	 * the given direction and length. The edge is split at the holes into lines, which are covered by patterns
+	 * of at most {@link #LINE_LENGTH} positions.
+	 * @param w width of the first position of the edge
+	 * @param h height of the first position of the edge
+	 * @param dw the step in the width
+	 * @param dh the step in the height
+	 * @param length the length of the edge
+	 */
+	private void addEdge(int w, int h, int dw, int dh, int length) {
+		int first = 0;
+		
+		while (first < length) {
+			int last = first;
+			
+			if (!holes[((h + (first * dh)) * width) + w + (first * dw)]) {
+				while (last + 1 < length && !holes[((h + ((last + 1) * dh)) * width) + w + ((last + 1) * dw)]) {
+					last++;
+				}
+				
+				int begin = first;
+				int end = first;
+				
+				while (end < last) {
+					begin = Math.max(first, Math.min(begin, last + 1 - LINE_LENGTH));
+					end = Math.min(last, begin + LINE_LENGTH - 1);
+					addLine(w + (begin * dw), h + (begin * dh), dw, dh, end - begin + 1, begin == first, end == last);
+					begin += LINE_LENGTH;
+				}
+			}
+			
+			first = last + 1;
+		}
+	}
+	
+	/**
+	 * Adds the pattern of the diagonal, which begins on the corner of the board with the given parameters and
+	 * has the given direction. The diagonal ends at the edge of the board, at a hole or after
+	 * {@link #LINE_LENGTH} positions.
+	 * @param w width of the corner of the board
+	 * @param h height of the corner of the board
+	 * @param dw the step in the width
+	 * @param dh the step in the height
+	 */
+	private void addDiagonal(int w, int h, int dw, int dh) {
+		int length = 0;
+		
+		while (length < LINE_LENGTH && !isBlocked(w + (length * dw), h + (length * dh))) {
+			length++;
+		}
+		
+		if (length >= 2) {
+			addLine(w, h, dw, dh, length, true, isBlocked(w + (length * dw), h + (length * dh)));
+		}
+	}
+	
+	/**
+	 * Adds the line pattern with the given parameters.
+	 * @param w width of the first position
+	 * @param h height of the first position
+	 * @param dw the step in the width
+	 * @param dh the step in the height
+	 * @param length the number of positions
+	 * @param firstBlocked whether the first position is next to the edge of the board or a hole
+	 * @param lastBlocked whether the last position is next to the edge of the board or a hole
+	 */
+	private void addLine(int w, int h, int dw, int dh, int length, boolean firstBlocked, boolean lastBlocked) {
+		int start = starts[patterns];
+		int flags = 0;
+		
+		for (int i = 0; i < length; i++) {
+			positions[start + i] = ((h + (i * dh)) * width) + w + (i * dw);
+		}
+		
+		if (firstBlocked) {
+			flags |= FIRST_BLOCKED;
+		}
+		
+		if (lastBlocked) {
+			flags |= LAST_BLOCKED;
+		}
+		
+		addPattern(length, LINE_TABLES[length][flags]);
+	}
+	
+	/**
+	 * Adds a pattern, whose positions are already stored after the positions of the previous pattern.
+	 * @param length the number of positions of the pattern
+	 * @param table the table of the pattern
+	 */
+	private void addPattern(int length, int[] table) {
+		tables[patterns] = table;
+		starts[patterns + 1] = starts[patterns] + length;
+		patterns++;
+	}
+	
+	/**
+	 * Returns the table of the line patterns with the given length and flags. The pieces, which form a run
+	 * from a blocked end of the line, cannot be flipped along the line. If both ends are blocked and the line
+	 * is full, no piece can be flipped along the line.
+	 * @param length the length of the line
+	 * @param flags the flags of the blocked ends of the line
+	 * @return the table of the line patterns with the given length and flags
+	 */
+	private static int[] lineTable(int length, int flags) {
+		int[] result = new int[power(length)];
+		int[] digits = new int[length];
+		boolean[] stable = new boolean[length];
+		
+		for (int index = 0; index < result.length; index++) {
+			boolean full = decode(index, digits);
+			
+			for (int i = 0; i < length; i++) {
+				stable[i] = full && flags == (FIRST_BLOCKED | LAST_BLOCKED);
+			}
+			
+			for (int i = 0; (flags & FIRST_BLOCKED) != 0 && i < length && digits[i] != 0 && digits[i] == digits[0]; i++) {
+				stable[i] = true;
+			}
+			
+			for (int i = length - 1; (flags & LAST_BLOCKED) != 0 && i >= 0 && digits[i] != 0
+					&& digits[i] == digits[length - 1]; i--) {
+				stable[i] = true;
+			}
+			
+			for (int i = 0; i < length; i++) {
+				if (digits[i] != 0) {
+					result[index] += sign(digits[i]) * (stable[i] ? STABLE : EDGE);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the table of the corner patterns. The first position of a corner pattern is the corner, the other
+	 * positions are its neighbours in the order of the directions of the board. A corner is rewarded. The pieces
+	 * next to a free corner are punished, the pieces next to a corner with the same color are rewarded.
+	 * @return the table of the corner patterns
+	 */
+	private static int[] cornerTable() {
+		int[] result = new int[power(CORNER_LENGTH)];
+		int[] digits = new int[CORNER_LENGTH];
+		
+		for (int index = 0; index < result.length; index++) {
+			decode(index, digits);
+			
+			if (digits[0] != 0) {
+				result[index] += sign(digits[0]) * CORNER;
+			}
+			
+			for (int d = 0; d < 8; d++) {
+				int digit = digits[d + 1];
+				
+				if (digit != 0 && digits[0] == 0) {
+					result[index] -= sign(digit) * (d < 4 ? C_SQUARE : X_SQUARE);
+				} else if (digit != 0 && digit == digits[0]) {
+					result[index] += sign(digit) * STABLE;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Stores the digits of the given index in base 3 in the given array, the lowest digit first,
+	 * and returns {@code true} if no digit is 0, {@code false} otherwise.
+	 * @param index the index of a pattern
+	 * @param digits the array, which stores the digits
+	 * @return {@code true} if no digit is 0, {@code false} otherwise
+	 */
+	private static boolean decode(int index, int[] digits) {
+		boolean result = true;
+		
+		for (int i = 0; i < digits.length; i++) {
+			digits[i] = index % 3;
+			index /= 3;
+			result = result && digits[i] != 0;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score factor of the given digit: 1 for a piece of the current player, -1 for a piece
+	 * of the other player.
+	 * @param digit the digit of a position
+	 * @return the score factor of the given digit
+	 */
+	private static int sign(int digit) {
+		int result = 1;
+		
+		if (digit == 2) {
+			result = -1;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns 3 to the power of the given exponent.
+	 * @param exponent the exponent
+	 * @return 3 to the power of the given exponent
+	 */
+	private static int power(int exponent) {
+		int result = 1;
+		
+		for (int i = 0; i < exponent; i++) {
+			result *= 3;
+		}
+		
+		return result;
+	}
+	
+}
@@ -0,0 +1,352 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This class models an append-only archive of records of games of the Othello game. The records are collected
+ * in blocks, which are compressed with the deflate algorithm and appended to the archive file. Each block begins
+ * with a header, which stores a magic number, the number of games, the uncompressed size and the compressed size
+ * of the block. A second file with the same name and the suffix {@code .idx} stores the offset, the number of the
+ * first game and the number of games of each block, so that the block of a game is found by a binary search.
+ * The index is rebuilt from the headers of the blocks, if it does not match the archive file.
+ * <p>
+ * The records of the last read block are kept in the memory, so that reading all games one after another reads
+ * and decompresses each block only once. The records, which are appended, are written when the current block
+ * is full or the archive is flushed. An archive must not be used by several threads at the same time.
+ * @author Delyan Nikolov
+ */
+public class GameArchive {
+
+	/** the suffix of the name of the index file */
+	public static final String INDEX_SUFFIX = ".idx";
+	
+	/** the magic number at the beginning of each block */
+	private static final int MAGIC = 0x4F524543;
+	
+	/** the size of the header of a block in bytes */
+	private static final int HEADER_SIZE = 16;
+	
+	/** the size of an entry of the index in bytes */
+	private static final int INDEX_ENTRY_SIZE = 16;
+	
+	/** the uncompressed size of a block in bytes, from which the block is written */
+	private static final int BLOCK_SIZE = 1 << 18;
+	
+	/** the archive file */
+	private RandomAccessFile data;
+	
+	/** the index file */
+	private RandomAccessFile index;
+	
+	/** the offset of each block in the archive file */
+	private long[] offsets = new long[16];
+	
+	/** the number of the first game of each block */
+	private int[] firsts = new int[16];
+	
+	/** the number of blocks */
+	private int blocks;
+	
+	/** the number of games in all blocks, which are written */
+	private int written;
+	
+	/** the binary format of the records, which are appended, but not yet written */
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	
+	/** the output of the records, which are appended, but not yet written */
+	private DataOutputStream pendingOutput = new DataOutputStream(pending);
+	
+	/** the records, which are appended, but not yet written */
+	private List<GameRecord> pendingRecords = new ArrayList<GameRecord>();
+	
+	/** the index of the block, whose records are kept in the memory, or -1 */
+	private int cachedBlock = -1;
+	
+	/** the records of the block, which is kept in the memory */
+	private GameRecord[] cachedRecords;
+	
+	/**
+	 * Constructs a new archive, which reads and appends to the given file. The file is created,
+	 * if it does not exist.
+	 * @param file the archive file
+	 * @throws IOException if the archive cannot be read or is damaged
+	 */
+	public GameArchive(File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		data = new RandomAccessFile(file, "rw");
+		index = new RandomAccessFile(new File(file.getPath() + INDEX_SUFFIX), "rw");
+		
+		boolean valid = false;
+		
+		try {
+			readIndex();
+			valid = end() == data.length();
+		} catch (IOException e) {
+			valid = false;
+		}
+		
+		try {
+			if (!valid) {
+				rebuildIndex();
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the number of games in this archive including the games, which are not yet written.
+	 * @return the number of games in this archive
+	 */
+	public int size() {
+		return written + pendingRecords.size();
+	}
+	
+	/**
+	 * Appends the given record to this archive. The record is written, when the current block is full
+	 * or this archive is flushed.
+	 * @param record the record of a game
+	 * @throws IOException if the archive cannot be written
+	 */
+	public void append(GameRecord record) throws IOException {
+		if (record == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		record.write(pendingOutput);
+		pendingRecords.add(record);
+		
+		if (pending.size() >= BLOCK_SIZE) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Returns the record of the game with the given number. The games are numbered from 0 in the order,
+	 * in which they were appended.
+	 * @param game the number of the game
+	 * @return the record of the game with the given number
+	 * @throws IOException if the archive cannot be read or is damaged
+	 */
+	public GameRecord get(int game) throws IOException {
+		if (game < 0 || game > size() - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		GameRecord result = null;
+		
+		if (game >= written) {
+			result = pendingRecords.get(game - written);
+		} else {
+			int block = Arrays.binarySearch(firsts, 0, blocks, game);
+			
+			if (block < 0) {
+				block = -block - 2;
+			}
+			
+			if (block != cachedBlock) {
+				cachedRecords = readBlock(block);
+				cachedBlock = block;
+			}
+			
+			result = cachedRecords[game - firsts[block]];
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Writes the records, which are appended, but not yet written, as a new block.
+	 * @throws IOException if the archive cannot be written
+	 */
+	public void flush() throws IOException {
+		if (!pendingRecords.isEmpty()) {
+			byte[] raw = pending.toByteArray();
+			Deflater deflater = new Deflater();
+			deflater.setInput(raw);
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			byte[] buffer = new byte[1 << 16];
+			
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+			
+			deflater.end();
+			long offset = end();
+			data.seek(offset);
+			data.writeInt(MAGIC);
+			data.writeInt(pendingRecords.size());
+			data.writeInt(raw.length);
+			data.writeInt(compressed.size());
+			data.write(compressed.toByteArray());
+			index.seek((long) blocks * INDEX_ENTRY_SIZE);
+			index.writeLong(offset);
+			index.writeInt(written);
+			index.writeInt(pendingRecords.size());
+			addBlock(offset, written);
+			written += pendingRecords.size();
+			pending.reset();
+			pendingRecords.clear();
+		}
+	}
+	
+	/**
+	 * Writes the records, which are not yet written, and closes the files of this archive.
+	 * The archive cannot be used anymore.
+	 * @throws IOException if the archive cannot be written
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			try {
+				data.close();
+			} finally {
+				index.close();
+			}
+		}
+	}
+	
+	/**
+	 * Reads and decompresses the block with the given index and returns its records.
+	 * @param block the index of the block
+	 * @return the records of the block
+	 * @throws IOException if the archive cannot be read or is damaged
+	 */
+	private GameRecord[] readBlock(int block) throws IOException {
+		data.seek(offsets[block]);
+		
+		if (data.readInt() != MAGIC) {
+			throw new IOException("The archive is damaged.");
+		}
+		
+		GameRecord[] result = new GameRecord[data.readInt()];
+		byte[] raw = new byte[data.readInt()];
+		byte[] compressed = new byte[data.readInt()];
+		data.readFully(compressed);
+		Inflater inflater = new Inflater();
+		
+		try {
+			inflater.setInput(compressed);
+			
+			if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+				throw new IOException("The archive is damaged.");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("The archive is damaged.", e);
+		} finally {
+			inflater.end();
+		}
+		
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(raw));
+		
+		for (int i = 0; i < result.length; i++) {
+			result[i] = GameRecord.read(input);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Reads the blocks from the index file.
+	 * @throws IOException if the index cannot be read
+	 */
+	private void readIndex() throws IOException {
+		long entries = index.length() / INDEX_ENTRY_SIZE;
+		index.seek(0);
+		
+		for (long i = 0; i < entries; i++) {
+			long offset = index.readLong();
+			int first = index.readInt();
+			int games = index.readInt();
+			addBlock(offset, first);
+			written = first + games;
+		}
+	}
+	
+	/**
+	 * Rebuilds the index from the headers of the blocks of the archive file. A block at the end of the file,
+	 * which was not completely written, is removed.
+	 * @throws IOException if the archive cannot be read or is damaged
+	 */
+	private void rebuildIndex() throws IOException {
+		blocks = 0;
+		written = 0;
+		cachedBlock = -1;
+		index.setLength(0);
+		long offset = 0L;
+		long length = data.length();
+		
+		while (offset + HEADER_SIZE <= length) {
+			data.seek(offset);
+			
+			if (data.readInt() != MAGIC) {
+				throw new IOException("The archive is damaged.");
+			}
+			
+			int games = data.readInt();
+			data.readInt();
+			long next = offset + HEADER_SIZE + data.readInt();
+			
+			if (next <= length) {
+				addBlock(offset, written);
+				index.writeLong(offset);
+				index.writeInt(written);
+				index.writeInt(games);
+				written += games;
+			}
+			
+			offset = next;
+		}
+		
+		data.setLength(end());
+	}
+	
+	/**
+	 * Returns the offset of the end of the last block in the archive file.
+	 * @return the offset of the end of the last block
+	 * @throws IOException if the archive cannot be read
+	 */
+	private long end() throws IOException {
+		long result = 0L;
+		
+		if (blocks > 0) {
+			data.seek(offsets[blocks - 1] + HEADER_SIZE - 4);
+			result = offsets[blocks - 1] + HEADER_SIZE + data.readInt();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Adds a block with the given offset and number of the first game.
+	 * @param offset the offset of the block in the archive file
+	 * @param first the number of the first game of the block
+	 */
+	private void addBlock(long offset, int first) {
+		if (blocks == offsets.length) {
+			offsets = Arrays.copyOf(offsets, blocks * 2);
+			firsts = Arrays.copyOf(firsts, blocks * 2);
+		}
+		
+		offsets[blocks] = offset;
+		firsts[blocks] = first;
+		blocks++;
+	}
+	
+}
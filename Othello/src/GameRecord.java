@@ -0,0 +1,336 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class models the record of a game of the Othello game. A game begins on a standard board with the given
+ * width and height, on which the given holes are added, and consists of the given moves. A move is given in the
+ * form {@code height * width of the board + width} or as {@link Search#PASS}, if the player cannot move.
+ * <p>
+ * In the binary format each move takes one byte. On boards with at most 254 positions the byte is the position
+ * of the move. On larger boards the byte is the index of the move in the sorted list of the possible moves, which
+ * is smaller than 254 in nearly all positions; a larger index is stored as an escape byte followed by the position.
+ * A pass is stored as its own byte.
+ * @author Delyan Nikolov
+ */
+public class GameRecord {
+
+	/** the byte of a pass */
+	private static final int PASS_CODE = 255;
+	
+	/** the byte, which is followed by the position of a move, which cannot be stored in one byte */
+	private static final int ESCAPE_CODE = 254;
+	
+	/** width of the board */
+	private int width;
+	
+	/** height of the board */
+	private int height;
+	
+	/** the positions of the holes */
+	private int[] holes;
+	
+	/** the moves */
+	private int[] moves;
+	
+	/**
+	 * Constructs a new record of the game with the given parameters. The moves are checked by replaying them.
+	 * @param width width of the board
+	 * @param height height of the board
+	 * @param holes the positions of the holes in the form {@code height * width of the board + width}
+	 * @param moves the moves in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 */
+	public GameRecord(int width, int height, int[] holes, int[] moves) {
+		this(width, height, holes, moves, true);
+	}
+	
+	/**
+	 * Constructs a new record of the game with the given parameters.
+	 * @param width width of the board
+	 * @param height height of the board
+	 * @param holes the positions of the holes
+	 * @param moves the moves
+	 * @param check whether the moves are checked by replaying them
+	 */
+	private GameRecord(int width, int height, int[] holes, int[] moves, boolean check) {
+		if (width < 2 || width > 26 || width % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (height < 2 || height > 98 || height % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (holes == null || moves == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.width = width;
+		this.height = height;
+		this.holes = holes.clone();
+		this.moves = moves.clone();
+		
+		if (check) {
+			replay(new Board(width, height), moves.length);
+		}
+	}
+	
+	/**
+	 * Returns the record of the game, which began on a standard board with the holes of the given board
+	 * and consists of the given moves.
+	 * @param board the board, whose width, height and holes are recorded
+	 * @param moves the moves in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 * @return the record of the game
+	 */
+	public static GameRecord of(Board board, int[] moves) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		int[] holes = new int[board.numberOfHoles()];
+		int count = 0;
+		
+		for (int i = 0; i < board.getHeight(); i++) {
+			for (int j = 0; j < board.getWidth(); j++) {
+				if (board.getBoard()[i][j] == Piece.HOLE) {
+					holes[count] = (i * board.getWidth()) + j;
+					count++;
+				}
+			}
+		}
+		
+		return new GameRecord(board.getWidth(), board.getHeight(), holes, moves);
+	}
+	
+	/**
+	 * Returns width of the board.
+	 * @return width of the board
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * Returns height of the board.
+	 * @return height of the board
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Returns the positions of the holes.
+	 * @return the positions of the holes
+	 */
+	public int[] getHoles() {
+		return holes.clone();
+	}
+	
+	/**
+	 * Returns the moves.
+	 * @return the moves
+	 */
+	public int[] getMoves() {
+		return moves.clone();
+	}
+	
+	/**
+	 * Returns the number of moves including the passes.
+	 * @return the number of moves
+	 */
+	public int size() {
+		return moves.length;
+	}
+	
+	/**
+	 * Returns the Othello game on the given empty board after the given number of moves of this record.
+	 * @param board an empty board with the width and the height of this record
+	 * @param plies the number of moves
+	 * @return the Othello game after the given number of moves
+	 */
+	public Othello replay(Board board, int plies) {
+		if (board == null || board.getWidth() != width || board.getHeight() != height) {
+			throw new IllegalArgumentException();
+		} else if (plies < 0 || plies > moves.length) {
+			throw new IllegalArgumentException();
+		}
+		
+		Othello game = new Othello(board);
+		game.setStandardBoard(width, height);
+		
+		for (int hole : holes) {
+			if (hole < 0 || hole > (width * height) - 1 || !board.possibleHoleArea(hole % width, hole / width,
+					hole % width, hole / width)) {
+				throw new IllegalArgumentException();
+			}
+			
+			board.setPosition(hole % width, hole / width, Piece.HOLE);
+		}
+		
+		for (int i = 0; i < plies; i++) {
+			Piece current = game.getCurrentPlayer().getPiece();
+			Piece other = game.getOtherPlayer().getPiece();
+			boolean possible = board.possibleMove(current, other);
+			
+			if (moves[i] == Search.PASS) {
+				if (possible) {
+					throw new IllegalArgumentException();
+				}
+				
+				game.switchPlayers();
+			} else {
+				if (moves[i] < 0 || moves[i] > (width * height) - 1) {
+					throw new IllegalArgumentException();
+				}
+				
+				int directions = board.flipDirections(moves[i], current, other);
+				
+				if (directions == 0) {
+					throw new IllegalArgumentException();
+				}
+				
+				game.setPiece(moves[i], directions, current);
+			}
+		}
+		
+		return game;
+	}
+	
+	/**
+	 * Writes this record in the binary format into the given output.
+	 * @param output the output
+	 * @throws IOException if the output cannot be written
+	 */
+	public void write(DataOutput output) throws IOException {
+		output.writeByte(width);
+		output.writeByte(height);
+		output.writeShort(holes.length);
+		
+		for (int hole : holes) {
+			output.writeShort(hole);
+		}
+		
+		output.writeShort(moves.length);
+		
+		if (isSmall(width, height)) {
+			for (int move : moves) {
+				output.writeByte(move == Search.PASS ? PASS_CODE : move);
+			}
+		} else {
+			Othello game = replay(new Board(width, height), 0);
+			MoveList list = new MoveList(width * height);
+			int[] sorted = new int[width * height];
+			
+			for (int move : moves) {
+				if (move == Search.PASS) {
+					output.writeByte(PASS_CODE);
+					game.switchPlayers();
+				} else {
+					Piece current = game.getCurrentPlayer().getPiece();
+					int index = Arrays.binarySearch(sorted, 0, sortedMoves(game, list, sorted), move);
+					
+					if (index < ESCAPE_CODE) {
+						output.writeByte(index);
+					} else {
+						output.writeByte(ESCAPE_CODE);
+						output.writeShort(move);
+					}
+					
+					game.setPiece(move, game.getBoard().flipDirections(move, current, game.getOtherPlayer().getPiece()),
+							current);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reads a record in the binary format from the given input. The moves of boards with at most 254 positions
+	 * are not checked, the moves of larger boards are checked while they are decoded.
+	 * @param input the input
+	 * @return the record, which was read
+	 * @throws IOException if the input cannot be read or contains no valid record
+	 */
+	public static GameRecord read(DataInput input) throws IOException {
+		int width = input.readUnsignedByte();
+		int height = input.readUnsignedByte();
+		int[] holes = new int[input.readUnsignedShort()];
+		
+		for (int i = 0; i < holes.length; i++) {
+			holes[i] = input.readUnsignedShort();
+		}
+		
+		int[] moves = new int[input.readUnsignedShort()];
+		GameRecord result = null;
+		
+		try {
+			if (isSmall(width, height)) {
+				for (int i = 0; i < moves.length; i++) {
+					int code = input.readUnsignedByte();
+					moves[i] = code == PASS_CODE ? Search.PASS : code;
+				}
+			} else {
+				Othello game = new GameRecord(width, height, holes, new int[0]).replay(new Board(width, height), 0);
+				MoveList list = new MoveList(width * height);
+				int[] sorted = new int[width * height];
+				
+				for (int i = 0; i < moves.length; i++) {
+					int code = input.readUnsignedByte();
+					
+					if (code == PASS_CODE) {
+						moves[i] = Search.PASS;
+						game.switchPlayers();
+					} else {
+						Piece current = game.getCurrentPlayer().getPiece();
+						int count = sortedMoves(game, list, sorted);
+						
+						if (code == ESCAPE_CODE) {
+							moves[i] = input.readUnsignedShort();
+						} else if (code < count) {
+							moves[i] = sorted[code];
+						} else {
+							throw new IOException("The record of the game is not valid.");
+						}
+						
+						game.setPiece(moves[i], game.getBoard().flipDirections(moves[i], current,
+								game.getOtherPlayer().getPiece()), current);
+					}
+				}
+			}
+			
+			result = new GameRecord(width, height, holes, moves, false);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("The record of the game is not valid.", e);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Stores the possible moves of the current player of the given game sorted in the given array
+	 * and returns their number.
+	 * @param game the game
+	 * @param list the list, which is used to generate the moves
+	 * @param sorted the array, which stores the sorted moves
+	 * @return the number of possible moves
+	 */
+	private static int sortedMoves(Othello game, MoveList list, int[] sorted) {
+		int count = game.generateMoves(game.getCurrentPlayer().getPiece(), game.getOtherPlayer().getPiece(), list);
+		
+		for (int i = 0; i < count; i++) {
+			sorted[i] = list.getPosition(i);
+		}
+		
+		Arrays.sort(sorted, 0, count);
+		
+		return count;
+	}
+	
+	/**
+	 * Returns {@code true} if each position of the board with the given width and height can be stored
+	 * in one byte, {@code false} otherwise.
+	 * @param width width of the board
+	 * @param height height of the board
+	 * @return {@code true} if each position can be stored in one byte, {@code false} otherwise
+	 */
+	private static boolean isSmall(int width, int height) {
+		return width * height <= ESCAPE_CODE;
+	}
+	
+}
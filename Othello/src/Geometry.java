@@ -0,0 +1,120 @@
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class stores the rays of the boards with a given width, height and layout of the holes. The ray of a
+ * position in one of the eight directions of {@link Board} consists of the positions, which follow the position
+ * in this direction up to the edge of the board or the first hole. The positions of a ray differ by the same
+ * step, so that each ray is stored as its length in one flat array. The pieces, which a move flips, are found
+ * by a loop, which adds the step to the position, without any checks of the bounds or multiplications.
+ * The rays of a geometry are computed only once and shared by all boards with the same geometry.
+ * Only the geometries, which were used last, are kept.
+ * @author Delyan Nikolov
+ */
+public final class Geometry {
+
+	/** the maximal number of geometries, which are kept */
+	private static final int CACHE_SIZE = 32;
+	
+	/** the geometries, which were used last, in the order of their use */
+	private static Map<String, Geometry> instances = new LinkedHashMap<String, Geometry>(CACHE_SIZE, 0.75f, true) {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Geometry> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	
+	};
+	
+	/** the difference of the positions of two fields, which follow each other in each direction */
+	private int[] steps;
+	
+	/** the number of positions of the ray of each position and direction */
+	private int[] lengths;
+	
+	/**
+	 * Computes the rays of the boards with the given width, height and holes.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 * @param holes the positions of the holes
+	 */
+	private Geometry(int width, int height, BitSet holes) {
+		int size = width * height;
+		steps = new int[8];
+		lengths = new int[size * 8];
+		
+		for (int d = 0; d < 8; d++) {
+			steps[d] = (Board.DIRECTION_HEIGHT[d] * width) + Board.DIRECTION_WIDTH[d];
+		}
+		
+		for (int position = 0; position < size; position++) {
+			if (!holes.get(position)) {
+				for (int d = 0; d < 8; d++) {
+					int x = (position % width) + Board.DIRECTION_WIDTH[d];
+					int y = (position / width) + Board.DIRECTION_HEIGHT[d];
+					int length = 0;
+					
+					while (x >= 0 && x < width && y >= 0 && y < height && !holes.get((y * width) + x)) {
+						length++;
+						x += Board.DIRECTION_WIDTH[d];
+						y += Board.DIRECTION_HEIGHT[d];
+					}
+					
+					lengths[(position * 8) + d] = length;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the rays of the boards with the given width, height and holes. The rays are computed only once
+	 * for each geometry, which is still kept.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 * @param holes the positions of the holes in the form {@code height * width of the board + width}
+	 * @return the rays of the boards with the given width, height and holes
+	 */
+	public static synchronized Geometry getInstance(int width, int height, BitSet holes) {
+		if (width < 2 || width > 26 || width % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (height < 2 || height > 98 || height % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (holes == null || holes.length() > width * height) {
+			throw new IllegalArgumentException();
+		}
+		
+		String key = width + "x" + height + holes;
+		Geometry result = instances.get(key);
+		
+		if (result == null) {
+			result = new Geometry(width, height, holes);
+			instances.put(key, result);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the difference of the positions of two fields, which follow each other in each direction.
+	 * The returned array must not be changed.
+	 * @return the difference of the positions of two fields, which follow each other in each direction
+	 */
+	public int[] getSteps() {
+		return steps;
+	}
+	
+	/**
+	 * Returns the number of positions of the ray of each position and direction. The length of the ray of the
+	 * position {@code p} in the direction {@code d} is stored at the index {@code 8 * p + d}. The ray consists
+	 * of the positions {@code p + k * getSteps()[d]} for {@code k} from 1 to its length. The returned array
+	 * must not be changed.
+	 * @return the number of positions of the ray of each position and direction
+	 */
+	public int[] getLengths() {
+		return lengths;
+	}
+	
+}
@@ -0,0 +1,769 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements a Monte Carlo tree search (MCTS) for the best move in the Othello game. Each playout
+ * selects a path through the tree with the UCT formula, expands the last node of the path and plays random moves
+ * until the game is over. The result of the game is added to all nodes of the path. The search needs no evaluation
+ * of the positions, so that it also plays well on boards with many holes, for which the pattern tables of the
+ * {@link Evaluation} were not made. The exploration constant of the UCT formula can be given.
+ * <p>
+ * The playouts run in several threads, each on its own copy of the board. The tree is only changed while a thread
+ * holds the lock of this search, the random games are played without the lock. A thread, which selects a node,
+ * counts a virtual loss for the node until the result of its playout is added, so that the other threads prefer
+ * other paths. The nodes are stored in a pool of arrays of primitive values, in which the children of each node
+ * follow each other. The tree of the last search is kept: if the new position follows the root of the last search
+ * after at most two moves, the subtree of the new position is copied to the beginning of a second pool and
+ * searched further instead of beginning with an empty tree.
+ * @author Delyan Nikolov
+ */
+public class MonteCarloSearch {
+
+	/** the default exploration constant of the UCT formula */
+	public static final double DEFAULT_EXPLORATION = 1.0;
+	
+	/** the default number of nodes of the pool */
+	public static final int DEFAULT_CAPACITY = 1 << 19;
+	
+	/** the number of visits, which a thread counts for a node until the result of its playout is added */
+	private static final int VIRTUAL_LOSS = 1;
+	
+	/** the first child of a node, which is not yet expanded */
+	private static final int UNEXPANDED = -1;
+	
+	/** the first child of a node, in which the game is over */
+	private static final int TERMINAL = -2;
+	
+	/** the result of a playout, which was stopped before the end of the game */
+	private static final int STOPPED = Integer.MIN_VALUE;
+	
+	/** the number of moves of a playout between two checks of the time minus one */
+	private static final int CHECK_MOVES = 15;
+	
+	/** the pool of the threads */
+	private ForkJoinPool pool;
+	
+	/** the number of threads */
+	private int threads;
+	
+	/** the exploration constant of the UCT formula */
+	private double exploration;
+	
+	/** the maximal number of nodes */
+	private int capacity;
+	
+	/** the move, which leads to each node, or {@link Search#PASS} */
+	private short[] moves;
+	
+	/** the directions, in which the move of each node flips pieces, as a bit mask */
+	private byte[] directions;
+	
+	/** the index of the first child of each node, {@link #UNEXPANDED} or {@link #TERMINAL} */
+	private int[] firstChildren;
+	
+	/** the number of children of each node */
+	private short[] children;
+	
+	/** the number of visits of each node including the virtual losses */
+	private int[] visits;
+	
+	/** the sum of the results of each node from the view of the player, who made its move, in half points */
+	private int[] scores;
+	
+	/** the second pool, into which the subtree of a new root is copied */
+	private short[] spareMoves;
+	
+	/** the directions of the second pool */
+	private byte[] spareDirections;
+	
+	/** the first children of the second pool */
+	private int[] spareFirstChildren;
+	
+	/** the number of children of the second pool */
+	private short[] spareChildren;
+	
+	/** the visits of the second pool */
+	private int[] spareVisits;
+	
+	/** the scores of the second pool */
+	private int[] spareScores;
+	
+	/** the number of used nodes */
+	private int size;
+	
+	/** a copy of the board of the root or {@code null} if there is no tree */
+	private Board root;
+	
+	/** the piece, which moves at the root */
+	private Piece rootPlayer;
+	
+	/** the number of playouts, which were begun in the current search */
+	private long started;
+	
+	/** the number of playouts, which were completed in the last search */
+	private long playouts;
+	
+	/** the time of the last search in nanoseconds */
+	private long time;
+	
+	/** the number of nodes, which were kept from the previous search */
+	private int reused;
+	
+	/**
+	 * Constructs a new Monte Carlo tree search with the given number of threads, the default exploration constant
+	 * and the default number of nodes.
+	 * @param threads the number of threads
+	 */
+	public MonteCarloSearch(int threads) {
+		this(threads, DEFAULT_EXPLORATION, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Constructs a new Monte Carlo tree search with the given parameters. When all nodes are used, the tree
+	 * is not expanded anymore, but the playouts continue. A board can only be searched, if the capacity is
+	 * at least the number of its fields plus one, so that the root can always be expanded.
+	 * @param threads the number of threads
+	 * @param exploration the exploration constant of the UCT formula
+	 * @param capacity the maximal number of nodes
+	 */
+	public MonteCarloSearch(int threads, double exploration, int capacity) {
+		if (threads < 1) {
+			throw new IllegalArgumentException();
+		} else if (exploration < 0.0 || Double.isNaN(exploration) || Double.isInfinite(exploration)) {
+			throw new IllegalArgumentException();
+		} else if (capacity < 2) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.threads = threads;
+		this.exploration = exploration;
+		this.capacity = capacity;
+		moves = new short[capacity];
+		directions = new byte[capacity];
+		firstChildren = new int[capacity];
+		children = new short[capacity];
+		visits = new int[capacity];
+		scores = new int[capacity];
+		pool = new ForkJoinPool(threads);
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board, which is
+	 * found by the given number of playouts. The move is the move of the root, which was visited most often.
+	 * The given board is not changed.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param playouts the number of playouts
+	 * @return the best move in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 */
+	public int bestMove(Board board, Piece current, long playouts) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (playouts < 1) {
+			throw new IllegalArgumentException();
+		} else if (board.getWidth() * board.getHeight() + 1 > capacity) {
+			throw new IllegalArgumentException();
+		}
+		
+		return run(board, current, playouts, 0L);
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board, which is
+	 * found by playouts within the given time. The move is the move of the root, which was visited most often.
+	 * The given board is not changed.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param millis the time for the search in milliseconds
+	 * @return the best move in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 */
+	public int bestMoveInTime(Board board, Piece current, long millis) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (millis < 1) {
+			throw new IllegalArgumentException();
+		} else if (board.getWidth() * board.getHeight() + 1 > capacity) {
+			throw new IllegalArgumentException();
+		}
+		
+		return run(board, current, Long.MAX_VALUE, millis);
+	}
+	
+	/**
+	 * Returns the number of threads of this search.
+	 * @return the number of threads of this search
+	 */
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Returns the exploration constant of the UCT formula.
+	 * @return the exploration constant of the UCT formula
+	 */
+	public double getExploration() {
+		return exploration;
+	}
+	
+	/**
+	 * Returns the number of playouts, which were completed in the last search.
+	 * @return the number of playouts, which were completed in the last search
+	 */
+	public synchronized long getPlayouts() {
+		return playouts;
+	}
+	
+	/**
+	 * Returns the number of playouts per second of the last search.
+	 * @return the number of playouts per second of the last search
+	 */
+	public synchronized long getPlayoutsPerSecond() {
+		return playouts * 1000000000L / Math.max(1L, time);
+	}
+	
+	/**
+	 * Returns the part of the playouts through the best move of the last search, which the current player won,
+	 * where a draw counts as half a win, or 0 if the current player had to pass.
+	 * @return the win rate of the best move of the last search
+	 */
+	public synchronized double getWinRate() {
+		double result = 0.0;
+		int best = bestChild();
+		
+		if (best >= 0 && visits[best] > 0) {
+			result = scores[best] / (2.0 * visits[best]);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the number of nodes of the tree after the last search.
+	 * @return the number of nodes of the tree after the last search
+	 */
+	public synchronized int getTreeSize() {
+		return size;
+	}
+	
+	/**
+	 * Returns the number of nodes, which were kept from the previous search at the beginning of the last search.
+	 * @return the number of nodes, which were kept from the previous search
+	 */
+	public synchronized int getReusedNodes() {
+		return reused;
+	}
+	
+	/**
+	 * Removes the tree, so that the next search begins with an empty tree.
+	 */
+	public synchronized void clear() {
+		root = null;
+		size = 0;
+	}
+	
+	/**
+	 * Stops the threads of this search. The search cannot be used anymore.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/**
+	 * Runs the playouts in all threads until the given number of playouts was begun or the given time is over
+	 * and returns the move of the root, which was visited most often. If the root could not be expanded, the
+	 * first possible move is returned.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param limit the maximal number of playouts
+	 * @param millis the time for the search in milliseconds or 0 if the search is not limited by time
+	 * @return the move of the root, which was visited most often
+	 */
+	private int run(Board board, Piece current, long limit, long millis) {
+		long start = System.nanoTime();
+		long deadline = 0L;
+		
+		if (millis > 0L) {
+			deadline = start + (millis * 1000000L);
+		}
+		
+		synchronized (this) {
+			prepare(board, current);
+			started = 0L;
+			playouts = 0L;
+		}
+		
+		int result = Search.PASS;
+		
+		if (board.possibleMove(current, opponent(current))) {
+			List<Future<Long>> results = new ArrayList<Future<Long>>();
+			
+			for (int i = 0; i < threads; i++) {
+				final Board copy = board.copy();
+				final long finalLimit = limit;
+				final long finalDeadline = deadline;
+				results.add(pool.submit(new Callable<Long>() {
+					
+					@Override
+					public Long call() {
+						return playouts(copy, finalLimit, finalDeadline);
+					}
+				
+				}));
+			}
+			
+			try {
+				for (Future<Long> future : results) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+			
+			synchronized (this) {
+				int best = bestChild();
+				
+				if (best >= 0) {
+					result = moves[best];
+				} else {
+					MoveList list = new MoveList(board.getWidth() * board.getHeight());
+					board.generateMoves(current, opponent(current), list);
+					result = list.getPosition(0);
+				}
+			}
+		}
+		
+		synchronized (this) {
+			time = System.nanoTime() - start;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Makes the root of the tree for the given board. If the board follows the board of the old root after at
+	 * most two moves, the subtree of the board is kept, otherwise the tree begins with the root alone.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 */
+	private void prepare(Board board, Piece current) {
+		int node = -1;
+		
+		if (root != null && root.getWidth() == board.getWidth() && root.getHeight() == board.getHeight()) {
+			node = find(0, root, rootPlayer, board.getHash(current), current, 2);
+		}
+		
+		if (node < 0) {
+			size = 1;
+			moves[0] = (short) Search.PASS;
+			directions[0] = 0;
+			firstChildren[0] = UNEXPANDED;
+			children[0] = 0;
+			visits[0] = 0;
+			scores[0] = 0;
+			reused = 0;
+		} else if (node > 0) {
+			compact(node);
+			reused = size;
+		} else {
+			reused = size;
+		}
+		
+		root = board.copy();
+		rootPlayer = current;
+	}
+	
+	/**
+	 * Returns the node of the given subtree, whose board has the given hash and the given current piece,
+	 * or -1 if there is no such node within the given number of moves.
+	 * @param node the root of the subtree
+	 * @param board the board of the root of the subtree, which is the same after this method
+	 * @param player the piece, which moves at the root of the subtree
+	 * @param hash the hash of the wanted board
+	 * @param current the piece, which moves at the wanted board
+	 * @param plies the maximal number of moves
+	 * @return the node with the given board or -1
+	 */
+	private int find(int node, Board board, Piece player, long hash, Piece current, int plies) {
+		int result = -1;
+		
+		if (player == current && board.getHash(player) == hash) {
+			result = node;
+		} else if (plies > 0 && firstChildren[node] >= 0) {
+			for (int i = 0; i < children[node] && result < 0; i++) {
+				int child = firstChildren[node] + i;
+				
+				if (moves[child] == Search.PASS) {
+					result = find(child, board, opponent(player), hash, current, plies - 1);
+				} else {
+					board.makeMove(moves[child], directions[child] & 0xFF, player);
+					result = find(child, board, opponent(player), hash, current, plies - 1);
+					board.unmakeMove();
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Copies the subtree of the given node to the beginning of the second pool, which becomes the pool of the
+	 * tree. The children of each node are copied one after another, so that they follow each other again.
+	 * @param node the new root
+	 */
+	private void compact(int node) {
+		if (spareMoves == null) {
+			spareMoves = new short[capacity];
+			spareDirections = new byte[capacity];
+			spareFirstChildren = new int[capacity];
+			spareChildren = new short[capacity];
+			spareVisits = new int[capacity];
+			spareScores = new int[capacity];
+		}
+		
+		int count = 1;
+		copyNode(node, 0);
+		
+		for (int i = 0; i < count; i++) {
+			int old = spareFirstChildren[i];
+			
+			if (firstChildren[old] >= 0) {
+				for (int j = 0; j < children[old]; j++) {
+					copyNode(firstChildren[old] + j, count + j);
+				}
+				
+				spareFirstChildren[i] = count;
+				count += children[old];
+			} else {
+				spareFirstChildren[i] = firstChildren[old];
+			}
+		}
+		
+		short[] swapMoves = moves;
+		moves = spareMoves;
+		spareMoves = swapMoves;
+		byte[] swapDirections = directions;
+		directions = spareDirections;
+		spareDirections = swapDirections;
+		int[] swapFirstChildren = firstChildren;
+		firstChildren = spareFirstChildren;
+		spareFirstChildren = swapFirstChildren;
+		short[] swapChildren = children;
+		children = spareChildren;
+		spareChildren = swapChildren;
+		int[] swapVisits = visits;
+		visits = spareVisits;
+		spareVisits = swapVisits;
+		int[] swapScores = scores;
+		scores = spareScores;
+		spareScores = swapScores;
+		size = count;
+	}
+	
+	/**
+	 * Copies the given node into the second pool. The index of the node is stored as its first child,
+	 * until its children are copied.
+	 * @param node the node in the pool
+	 * @param index the index in the second pool
+	 */
+	private void copyNode(int node, int index) {
+		spareMoves[index] = moves[node];
+		spareDirections[index] = directions[node];
+		spareFirstChildren[index] = node;
+		spareChildren[index] = children[node];
+		spareVisits[index] = visits[node];
+		spareScores[index] = scores[node];
+	}
+	
+	/**
+	 * Runs playouts on the given copy of the board until the given number of playouts was begun or the given
+	 * time is over and returns the number of completed playouts.
+	 * @param board a copy of the board of the root
+	 * @param limit the maximal number of playouts
+	 * @param deadline the time in nanoseconds, when the search stops, or 0 if the search is not stopped
+	 * @return the number of completed playouts
+	 */
+	private long playouts(Board board, long limit, long deadline) {
+		MoveList list = new MoveList(board.getWidth() * board.getHeight());
+		Random random = new Random();
+		int[] path = new int[(2 * board.getWidth() * board.getHeight()) + 2];
+		long result = 0L;
+		boolean running = true;
+		
+		while (running) {
+			int length = select(board, list, path, limit);
+			
+			if (length == 0) {
+				running = false;
+			} else {
+				Piece current = rootPlayer;
+				
+				if ((length & 1) == 0) {
+					current = opponent(rootPlayer);
+				}
+				
+				int difference = play(board, current, list, random, deadline);
+				
+				while (board.getUndoMoves() > 0) {
+					board.unmakeMove();
+				}
+				
+				update(path, length, difference);
+				
+				if (difference == STOPPED) {
+					running = false;
+				} else {
+					result++;
+				}
+			}
+			
+			if (deadline != 0L && System.nanoTime() > deadline) {
+				running = false;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Selects a path from the root with the UCT formula, makes its moves on the given board and expands
+	 * its last node. Each node of the path counts a virtual loss. Returns the number of nodes of the path
+	 * or 0 if the given number of playouts was already begun.
+	 * @param board a copy of the board of the root
+	 * @param list the list, which is used to generate the moves
+	 * @param path the array, which stores the nodes of the path
+	 * @param limit the maximal number of playouts
+	 * @return the number of nodes of the path or 0
+	 */
+	private synchronized int select(Board board, MoveList list, int[] path, long limit) {
+		int result = 0;
+		
+		if (started < limit) {
+			started++;
+			int node = 0;
+			Piece current = rootPlayer;
+			path[0] = 0;
+			visits[0] += VIRTUAL_LOSS;
+			result = 1;
+			
+			if (firstChildren[node] == UNEXPANDED && (node == 0 || visits[node] > VIRTUAL_LOSS)) {
+				expand(node, board, current, list);
+			}
+			
+			while (firstChildren[node] >= 0) {
+				node = selectChild(node);
+				
+				if (moves[node] != Search.PASS) {
+					board.makeMove(moves[node], directions[node] & 0xFF, current);
+				}
+				
+				current = opponent(current);
+				path[result] = node;
+				visits[node] += VIRTUAL_LOSS;
+				result++;
+				
+				if (firstChildren[node] == UNEXPANDED && visits[node] > VIRTUAL_LOSS) {
+					expand(node, board, current, list);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Adds the children of the given node, if there are enough free nodes in the pool.
+	 * @param node the node
+	 * @param board the board of the node
+	 * @param current the piece, which moves at the node
+	 * @param list the list, which is used to generate the moves
+	 */
+	private void expand(int node, Board board, Piece current, MoveList list) {
+		int count = board.generateMoves(current, opponent(current), list);
+		
+		if (count == 0) {
+			if (!board.possibleMove(opponent(current), current)) {
+				firstChildren[node] = TERMINAL;
+			} else if (size < capacity) {
+				addChild(Search.PASS, 0);
+				firstChildren[node] = size - 1;
+				children[node] = 1;
+			}
+		} else if (size + count <= capacity) {
+			firstChildren[node] = size;
+			children[node] = (short) count;
+			
+			for (int i = 0; i < count; i++) {
+				addChild(list.getPosition(i), list.getDirections(i));
+			}
+		}
+	}
+	
+	/**
+	 * Adds a new node with the given move at the end of the pool.
+	 * @param move the move of the node
+	 * @param direction the directions, in which the move flips pieces
+	 */
+	private void addChild(int move, int direction) {
+		moves[size] = (short) move;
+		directions[size] = (byte) direction;
+		firstChildren[size] = UNEXPANDED;
+		children[size] = 0;
+		visits[size] = 0;
+		scores[size] = 0;
+		size++;
+	}
+	
+	/**
+	 * Returns the child of the given node with the highest value of the UCT formula. A child,
+	 * which was not visited yet, is returned first.
+	 * @param node the node
+	 * @return the child with the highest value of the UCT formula
+	 */
+	private int selectChild(int node) {
+		int first = firstChildren[node];
+		double logarithm = Math.log(Math.max(1, visits[node]));
+		int result = first;
+		double best = Double.NEGATIVE_INFINITY;
+		
+		for (int i = first; i < first + children[node] && best < Double.POSITIVE_INFINITY; i++) {
+			double value = Double.POSITIVE_INFINITY;
+			
+			if (visits[i] > 0) {
+				value = (scores[i] / (2.0 * visits[i])) + (exploration * Math.sqrt(logarithm / visits[i]));
+			}
+			
+			if (value > best) {
+				best = value;
+				result = i;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Plays random moves from the given board until the game is over and returns the difference of the black
+	 * and the white pieces or {@link #STOPPED} if the given time is over first.
+	 * @param board the board
+	 * @param current the piece, which moves
+	 * @param list the list, which is used to generate the moves
+	 * @param random the random numbers of the thread
+	 * @param deadline the time in nanoseconds, when the search stops, or 0 if the search is not stopped
+	 * @return the difference of the black and the white pieces or {@link #STOPPED}
+	 */
+	private static int play(Board board, Piece current, MoveList list, Random random, long deadline) {
+		Piece player = current;
+		int passes = 0;
+		int result = 0;
+		
+		for (int ply = 0; passes < 2 && result != STOPPED; ply++) {
+			int count = board.generateMoves(player, opponent(player), list);
+			
+			if (count == 0) {
+				passes++;
+			} else {
+				int move = random.nextInt(count);
+				board.makeMove(list.getPosition(move), list.getDirections(move), player);
+				passes = 0;
+			}
+			
+			player = opponent(player);
+			
+			if ((ply & CHECK_MOVES) == CHECK_MOVES && deadline != 0L && System.nanoTime() > deadline) {
+				result = STOPPED;
+			}
+		}
+		
+		if (result != STOPPED) {
+			result = board.numberOfPieces(Piece.BLACK) - board.numberOfPieces(Piece.WHITE);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Adds the result of a playout to the nodes of the given path and removes their virtual losses.
+	 * The result of a stopped playout only removes the virtual losses.
+	 * @param path the nodes of the path
+	 * @param length the number of nodes of the path
+	 * @param difference the difference of the black and the white pieces or {@link #STOPPED}
+	 */
+	private synchronized void update(int[] path, int length, int difference) {
+		Piece mover = opponent(rootPlayer);
+		
+		for (int i = 0; i < length; i++) {
+			int node = path[i];
+			
+			if (difference == STOPPED) {
+				visits[node] -= VIRTUAL_LOSS;
+			} else {
+				visits[node] += 1 - VIRTUAL_LOSS;
+				int own = difference;
+				
+				if (mover == Piece.WHITE) {
+					own = -difference;
+				}
+				
+				if (own > 0) {
+					scores[node] += 2;
+				} else if (own == 0) {
+					scores[node] += 1;
+				}
+			}
+			
+			mover = opponent(mover);
+		}
+		
+		if (difference != STOPPED) {
+			playouts++;
+		}
+	}
+	
+	/**
+	 * Returns the child of the root, which was visited most often, or -1 if the root has no children.
+	 * @return the child of the root, which was visited most often, or -1
+	 */
+	private int bestChild() {
+		int result = -1;
+		
+		if (size > 0 && firstChildren[0] >= 0) {
+			result = firstChildren[0];
+			
+			for (int i = result + 1; i < firstChildren[0] + children[0]; i++) {
+				if (visits[i] > visits[result]) {
+					result = i;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the piece of the other player.
+	 * @param piece the piece of the one player
+	 * @return the piece of the other player
+	 */
+	private static Piece opponent(Piece piece) {
+		Piece result = Piece.BLACK;
+		
+		if (piece == Piece.BLACK) {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+}
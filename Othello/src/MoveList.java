@@ -0,0 +1,129 @@
+/**
+ * This class models a reusable list of possible moves in the Othello game. For each move the position,
+ * the directions, in which pieces are flipped, and the number of flipped pieces are stored in arrays
+ * of primitive values, so that filling the list again does not create any objects.
+ * A position with width {@code w} and height {@code h} is stored as {@code h * width of the board + w}.
+ * @author Delyan Nikolov
+ */
+public class MoveList {
+
+	/** the positions of the moves */
+	private int[] positions;
+	
+	/** the directions, in which pieces are flipped, of the moves as bit masks */
+	private int[] directions;
+	
+	/** the number of flipped pieces of the moves */
+	private int[] flips;
+	
+	/** the number of moves in this list */
+	private int size;
+	
+	/**
+	 * Constructs a new empty list, which can store the given number of moves.
+	 * @param capacity the number of moves, which this list can store
+	 */
+	public MoveList(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		positions = new int[capacity];
+		directions = new int[capacity];
+		flips = new int[capacity];
+		size = 0;
+	}
+	
+	/**
+	 * Returns the number of moves in this list.
+	 * @return the number of moves in this list
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Removes all moves from this list.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Adds a move with the given parameters at the end of this list.
+	 * @param position the position of the move
+	 * @param direction the directions, in which pieces are flipped, as a bit mask
+	 * @param flip the number of flipped pieces
+	 */
+	public void add(int position, int direction, int flip) {
+		if (size == positions.length) {
+			throw new IllegalStateException();
+		}
+		
+		positions[size] = position;
+		directions[size] = direction;
+		flips[size] = flip;
+		size++;
+	}
+	
+	/**
+	 * Swaps the two moves with the given indices.
+	 * @param first the index of the first move
+	 * @param second the index of the second move
+	 */
+	public void swap(int first, int second) {
+		if (first < 0 || first > size - 1 || second < 0 || second > size - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		int position = positions[first];
+		int direction = directions[first];
+		int flip = flips[first];
+		positions[first] = positions[second];
+		directions[first] = directions[second];
+		flips[first] = flips[second];
+		positions[second] = position;
+		directions[second] = direction;
+		flips[second] = flip;
+	}
+	
+	/**
+	 * Returns the position of the move with the given index.
+	 * @param index the index of the move
+	 * @return the position of the move with the given index
+	 */
+	public int getPosition(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return positions[index];
+	}
+	
+	/**
+	 * Returns the directions, in which pieces are flipped, of the move with the given index as a bit mask.
+	 * @param index the index of the move
+	 * @return the directions, in which pieces are flipped, of the move with the given index
+	 */
+	public int getDirections(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return directions[index];
+	}
+	
+	/**
+	 * Returns the number of flipped pieces of the move with the given index.
+	 * @param index the index of the move
+	 * @return the number of flipped pieces of the move with the given index
+	 */
+	public int getFlips(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return flips[index];
+	}
+	
+}
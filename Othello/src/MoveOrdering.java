@@ -0,0 +1,182 @@
+/**
+ * This class orders the possible moves of a search in the Othello game, so that the moves, which most likely
+ * cause a cutoff, are searched first. The best move of the transposition table is searched first, followed by the
+ * two killer moves of the ply, which caused the last cutoffs at the same distance to the root. The other moves are
+ * ordered by the mobility of the other player after the move (fewest possible moves first), if the mobility is
+ * requested, and then by the history table, which counts the cutoffs of each position over the whole search.
+ * <p>
+ * The history is halved, when one of its values grows too large and at the beginning of each search, so that
+ * recent cutoffs weigh more than old ones. An ordering can be used by any search on a {@link Board},
+ * but not by several threads at the same time.
+ * @author Delyan Nikolov
+ */
+public class MoveOrdering {
+
+	/** the key of the best move of the transposition table */
+	private static final int HASH_KEY = Integer.MAX_VALUE;
+	
+	/** the key of the first killer move, the second killer move has a key one less */
+	private static final int KILLER_KEY = Integer.MAX_VALUE - 1;
+	
+	/** the value of the history, from which all values of the history are halved */
+	private static final int HISTORY_LIMIT = 1 << 16;
+	
+	/** the number of killer moves of each ply */
+	private static final int KILLERS = 2;
+	
+	/** the number of positions of the board */
+	private int size;
+	
+	/** the killer moves of each ply or {@link Search#PASS} */
+	private int[] killers;
+	
+	/** the number of cutoffs of each position weighted by the remaining depth */
+	private int[] history;
+	
+	/** the keys, by which the moves are sorted */
+	private int[] keys;
+	
+	/** the list of the possible moves of the other player for the mobility */
+	private MoveList replies;
+	
+	/**
+	 * Constructs a new move ordering for boards with the given number of positions and searches with
+	 * at most the given number of plies.
+	 * @param size the number of positions of the board
+	 * @param plies the maximal distance to the root of the search
+	 */
+	public MoveOrdering(int size, int plies) {
+		if (size < 4) {
+			throw new IllegalArgumentException();
+		} else if (plies < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.size = size;
+		killers = new int[plies * KILLERS];
+		history = new int[size];
+		keys = new int[size];
+		replies = new MoveList(size);
+		clear();
+	}
+	
+	/**
+	 * Returns the number of positions of the boards, for which this ordering is made.
+	 * @return the number of positions of the boards
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Removes the killer moves and the history.
+	 */
+	public void clear() {
+		for (int i = 0; i < killers.length; i++) {
+			killers[i] = Search.PASS;
+		}
+		
+		for (int i = 0; i < history.length; i++) {
+			history[i] = 0;
+		}
+	}
+	
+	/**
+	 * Prepares this ordering for a new search. The killer moves are removed and the history is halved.
+	 */
+	public void newSearch() {
+		for (int i = 0; i < killers.length; i++) {
+			killers[i] = Search.PASS;
+		}
+		
+		age();
+	}
+	
+	/**
+	 * Sorts the given possible moves of the given current piece on the given board, so that the moves,
+	 * which most likely cause a cutoff, are searched first. The board is the same after this method.
+	 * @param board the board, on which the moves are possible
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param list the possible moves
+	 * @param ply the distance to the root of the search
+	 * @param hashMove the best move, which is stored in the transposition table, or {@link Search#PASS}
+	 * @param mobility whether the moves are ordered by the mobility of the other player after the move
+	 */
+	public void order(Board board, Piece current, Piece other, MoveList list, int ply, int hashMove,
+			boolean mobility) {
+		if (board == null || list == null) {
+			throw new IllegalArgumentException();
+		} else if (ply < 0 || ply > (killers.length / KILLERS) - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		int count = list.size();
+		int killer = ply * KILLERS;
+		
+		for (int i = 0; i < count; i++) {
+			int position = list.getPosition(i);
+			
+			if (position == hashMove) {
+				keys[i] = HASH_KEY;
+			} else if (position == killers[killer]) {
+				keys[i] = KILLER_KEY;
+			} else if (position == killers[killer + 1]) {
+				keys[i] = KILLER_KEY - 1;
+			} else if (mobility) {
+				board.makeMove(position, list.getDirections(i), current);
+				keys[i] = history[position] - ((HISTORY_LIMIT + 1) * board.generateMoves(other, current, replies));
+				board.unmakeMove();
+			} else {
+				keys[i] = history[position];
+			}
+		}
+		
+		for (int i = 1; i < count; i++) {
+			for (int j = i; j > 0 && keys[j] > keys[j - 1]; j--) {
+				int swap = keys[j];
+				keys[j] = keys[j - 1];
+				keys[j - 1] = swap;
+				list.swap(j, j - 1);
+			}
+		}
+	}
+	
+	/**
+	 * Records that the given move caused a cutoff at the given distance to the root of the search. The move
+	 * becomes the first killer move of the ply and its history grows with the square of the remaining depth.
+	 * @param move the move in the form {@code height * width of the board + width}
+	 * @param ply the distance to the root of the search
+	 * @param remaining the remaining depth of the search
+	 */
+	public void cutoff(int move, int ply, int remaining) {
+		if (move < 0 || move > size - 1) {
+			throw new IllegalArgumentException();
+		} else if (ply < 0 || ply > (killers.length / KILLERS) - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		int killer = ply * KILLERS;
+		
+		if (killers[killer] != move) {
+			killers[killer + 1] = killers[killer];
+			killers[killer] = move;
+		}
+		
+		history[move] += remaining * remaining;
+		
+		if (history[move] > HISTORY_LIMIT) {
+			age();
+		}
+	}
+	
+	/**
+	 * Halves all values of the history.
+	 */
+	private void age() {
+		for (int i = 0; i < history.length; i++) {
+			history[i] >>= 1;
+		}
+	}
+	
+}
@@ -0,0 +1,202 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class models an opening book for the Othello game, which is stored in a binary file. The file begins
+ * with a magic number, which is followed by records of a fixed size. Each record stores the Zobrist hash of a
+ * position with the player, who moves, a move in this position and the number of games, wins and draws of the
+ * moving player after this move. The records are sorted by the hash, so that all moves of a position follow
+ * each other and are found by a binary search. The file is mapped into the memory and is never copied into
+ * the heap, so that the size of the book does not matter and a lookup costs only a few reads of the file.
+ * The book is only read and can be used by several threads. The file is written by {@link OpeningBookBuilder}.
+ * @author Delyan Nikolov
+ */
+public class OpeningBook {
+
+	/** the magic number at the beginning of the file */
+	public static final long MAGIC = 0x4F5448424F4F4B31L;
+	
+	/** the size of the header of the file in bytes */
+	public static final int HEADER_SIZE = 8;
+	
+	/** the size of a record in bytes: the hash, the move, the games, the wins and the draws */
+	public static final int RECORD_SIZE = 24;
+	
+	/** the offset of the move in a record */
+	private static final int MOVE = 8;
+	
+	/** the offset of the number of games in a record */
+	private static final int GAMES = 12;
+	
+	/** the offset of the number of wins in a record */
+	private static final int WINS = 16;
+	
+	/** the offset of the number of draws in a record */
+	private static final int DRAWS = 20;
+	
+	/** the mapped file */
+	private MappedByteBuffer buffer;
+	
+	/** the number of records */
+	private int size;
+	
+	/**
+	 * Constructs a new opening book, which maps the given file into the memory.
+	 * @param file the file of the opening book
+	 * @throws IOException if the file cannot be read or is no opening book
+	 */
+	public OpeningBook(File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		
+		try {
+			long length = input.length();
+			
+			if (length < HEADER_SIZE || (length - HEADER_SIZE) % RECORD_SIZE != 0 || length > Integer.MAX_VALUE) {
+				throw new IOException("The file is no opening book.");
+			}
+			
+			buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+			
+			if (buffer.getLong(0) != MAGIC) {
+				throw new IOException("The file is no opening book.");
+			}
+			
+			size = (int) ((length - HEADER_SIZE) / RECORD_SIZE);
+		} finally {
+			input.close();
+		}
+	}
+	
+	/**
+	 * Returns the number of records of this opening book.
+	 * @return the number of records of this opening book
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the index of the record of the most played move for the piece with the color of the given current
+	 * piece on the given board or -1 if the position is not in this opening book. Moves, which are not possible
+	 * on the given board, are ignored, so that a collision of the hashes returns no wrong move.
+	 * @param board the board
+	 * @param current the current piece
+	 * @return the index of the record of the most played move or -1
+	 */
+	public int find(Board board, Piece current) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		Piece other = Piece.BLACK;
+		
+		if (current == Piece.BLACK) {
+			other = Piece.WHITE;
+		}
+		
+		long hash = board.getHash(current);
+		int result = -1;
+		
+		for (int i = lowerBound(hash); i < size && getHash(i) == hash; i++) {
+			int move = getMove(i);
+			
+			if (move >= 0 && move < board.getWidth() * board.getHeight()
+					&& board.flipDirections(move, current, other) != 0
+					&& (result == -1 || getGames(i) > getGames(result))) {
+				result = i;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the hash of the position of the record with the given index.
+	 * @param index the index of the record
+	 * @return the hash of the position of the record with the given index
+	 */
+	public long getHash(int index) {
+		return buffer.getLong(offset(index));
+	}
+	
+	/**
+	 * Returns the move of the record with the given index in the form {@code height * width of the board + width}.
+	 * @param index the index of the record
+	 * @return the move of the record with the given index
+	 */
+	public int getMove(int index) {
+		return buffer.getInt(offset(index) + MOVE);
+	}
+	
+	/**
+	 * Returns the number of games, in which the move of the record with the given index was played.
+	 * @param index the index of the record
+	 * @return the number of games of the record with the given index
+	 */
+	public int getGames(int index) {
+		return buffer.getInt(offset(index) + GAMES);
+	}
+	
+	/**
+	 * Returns the number of games, which the player of the move of the record with the given index has won.
+	 * @param index the index of the record
+	 * @return the number of wins of the record with the given index
+	 */
+	public int getWins(int index) {
+		return buffer.getInt(offset(index) + WINS);
+	}
+	
+	/**
+	 * Returns the number of drawn games of the record with the given index.
+	 * @param index the index of the record
+	 * @return the number of draws of the record with the given index
+	 */
+	public int getDraws(int index) {
+		return buffer.getInt(offset(index) + DRAWS);
+	}
+	
+	/**
+	 * Returns the index of the first record, whose hash is not less than the given hash.
+	 * @param hash the hash of a position
+	 * @return the index of the first record, whose hash is not less than the given hash
+	 */
+	private int lowerBound(long hash) {
+		int low = 0;
+		int high = size;
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			
+			if (getHash(middle) < hash) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Returns the offset of the record with the given index in the file.
+	 * @param index the index of the record
+	 * @return the offset of the record with the given index
+	 */
+	private int offset(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return HEADER_SIZE + (index * RECORD_SIZE);
+	}
+	
+}
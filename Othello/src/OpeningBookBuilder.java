@@ -0,0 +1,358 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * This class builds an opening book for the Othello game and writes it into a file, which is read by
+ * {@link OpeningBook}. The book is grown from finished games: for each of the first plies of a game the hash of
+ * the position, the played move and the result of the game from the view of the moving player are recorded.
+ * The games are either given as lists of moves or played by the builder itself with a search, whose first
+ * moves are random, so that different openings are played. An existing book can be loaded first, so that the
+ * new games are added to its statistics.
+ * @author Delyan Nikolov
+ */
+public class OpeningBookBuilder {
+
+	/** the default number of plies of each game, which are recorded */
+	public static final int DEFAULT_PLIES = 12;
+	
+	/** the number of random moves at the beginning of each game of the self-play */
+	private static final int RANDOM_PLIES = 6;
+	
+	/** the size of the transposition table of the search of the self-play in megabytes */
+	private static final int TABLE_SIZE = 4;
+	
+	/** the number of plies of each game, which are recorded */
+	private int plies;
+	
+	/** the games, wins and draws of each move of each position, sorted by the hash of the position */
+	private TreeMap<Long, TreeMap<Integer, int[]>> positions = new TreeMap<Long, TreeMap<Integer, int[]>>();
+	
+	/** the number of records */
+	private int size;
+	
+	/**
+	 * Constructs a new builder, which records the given number of plies of each game.
+	 * @param plies the number of plies of each game, which are recorded
+	 */
+	public OpeningBookBuilder(int plies) {
+		if (plies < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.plies = plies;
+	}
+	
+	/**
+	 * main method - grows the opening book in the given file by self-play
+	 * @param args command-line arguments - the file, the width and the height of the boards, the number of games,
+	 * the depth of the search and optionally the number of recorded plies of each game
+	 * @throws IOException if the file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 5 || args.length > 6) {
+			System.out.println("Usage: OpeningBookBuilder <file> <width> <height> <games> <depth> [<plies>]");
+		} else {
+			File file = new File(args[0]);
+			int plies = DEFAULT_PLIES;
+			
+			if (args.length == 6) {
+				plies = Integer.parseInt(args[5]);
+			}
+			
+			OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+			
+			if (file.exists()) {
+				builder.load(file);
+			}
+			
+			long start = System.nanoTime();
+			builder.selfPlay(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+					Integer.parseInt(args[4]), System.nanoTime());
+			builder.write(file);
+			long time = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+			System.out.println("Opening book: " + builder.size() + " records (" + time + " ms)");
+		}
+	}
+	
+	/**
+	 * Returns the number of records of the book.
+	 * @return the number of records of the book
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Adds all records of the given opening book to the book of this builder.
+	 * @param book the opening book
+	 */
+	public void load(OpeningBook book) {
+		if (book == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		for (int i = 0; i < book.size(); i++) {
+			int[] statistics = statistics(book.getHash(i), book.getMove(i));
+			statistics[0] += book.getGames(i);
+			statistics[1] += book.getWins(i);
+			statistics[2] += book.getDraws(i);
+		}
+	}
+	
+	/**
+	 * Adds all records of the opening book in the given file to the book of this builder. The file is read
+	 * as a stream and not mapped into the memory, so that it can be written again at once.
+	 * @param file the file of the opening book
+	 * @throws IOException if the file cannot be read or is no opening book
+	 */
+	public void load(File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		long length = file.length();
+		
+		if (length < OpeningBook.HEADER_SIZE || (length - OpeningBook.HEADER_SIZE) % OpeningBook.RECORD_SIZE != 0) {
+			throw new IOException("The file is no opening book.");
+		}
+		
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		
+		try {
+			if (input.readLong() != OpeningBook.MAGIC) {
+				throw new IOException("The file is no opening book.");
+			}
+			
+			for (long i = 0; i < (length - OpeningBook.HEADER_SIZE) / OpeningBook.RECORD_SIZE; i++) {
+				int[] statistics = statistics(input.readLong(), input.readInt());
+				statistics[0] += input.readInt();
+				statistics[1] += input.readInt();
+				statistics[2] += input.readInt();
+			}
+		} finally {
+			input.close();
+		}
+	}
+	
+	/**
+	 * Adds the given finished game, which begins on the given board with a move of the piece with the color of
+	 * the given first piece. The moves are given in the form {@code height * width of the board + width}.
+	 * A player, who cannot move, passes, and a pass can also be given as {@link Search#PASS}.
+	 * The given board is not changed.
+	 * @param start the board, on which the game begins
+	 * @param first the piece, which moves first
+	 * @param moves the moves of the game
+	 */
+	public void addGame(Board start, Piece first, int[] moves) {
+		if (start == null || moves == null) {
+			throw new IllegalArgumentException();
+		} else if (first != Piece.WHITE && first != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		Board board = start.copy();
+		long[] hashes = new long[plies];
+		int[] played = new int[plies];
+		Piece[] movers = new Piece[plies];
+		Piece current = first;
+		Piece other = opponent(first);
+		int recorded = 0;
+		
+		for (int move : moves) {
+			boolean possible = board.possibleMove(current, other);
+			
+			if (!possible) {
+				if (!board.possibleMove(other, current)) {
+					throw new IllegalArgumentException();
+				}
+				
+				Piece swap = current;
+				current = other;
+				other = swap;
+			}
+			
+			if (move == Search.PASS && possible) {
+				throw new IllegalArgumentException();
+			} else if (move != Search.PASS) {
+				if (move < 0 || move > (board.getWidth() * board.getHeight()) - 1) {
+					throw new IllegalArgumentException();
+				}
+				
+				int directions = board.flipDirections(move, current, other);
+				
+				if (directions == 0) {
+					throw new IllegalArgumentException();
+				}
+				
+				if (recorded < plies) {
+					hashes[recorded] = board.getHash(current);
+					played[recorded] = move;
+					movers[recorded] = current;
+					recorded++;
+				}
+				
+				board.setPiece(move, directions, current);
+				Piece swap = current;
+				current = other;
+				other = swap;
+			}
+		}
+		
+		if (board.possibleMove(current, other) || board.possibleMove(other, current)) {
+			throw new IllegalArgumentException();
+		}
+		
+		for (int i = 0; i < recorded; i++) {
+			int difference = board.numberOfPieces(movers[i]) - board.numberOfPieces(opponent(movers[i]));
+			int[] statistics = statistics(hashes[i], played[i]);
+			statistics[0]++;
+			
+			if (difference > 0) {
+				statistics[1]++;
+			} else if (difference == 0) {
+				statistics[2]++;
+			}
+		}
+	}
+	
+	/**
+	 * Plays the given number of games on standard boards with the given width and height and adds them.
+	 * The first moves of each game are random, the other moves are found by a search with the given depth.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 * @param games the number of games
+	 * @param depth the depth of the search
+	 * @param seed the seed of the random moves
+	 */
+	public void selfPlay(int width, int height, int games, int depth, long seed) {
+		if (games < 0) {
+			throw new IllegalArgumentException();
+		} else if (depth < 1 || depth > 64) {
+			throw new IllegalArgumentException();
+		}
+		
+		Random random = new Random(seed);
+		Search search = new Search(new TranspositionTable(TABLE_SIZE));
+		MoveList list = new MoveList(width * height);
+		
+		for (int g = 0; g < games; g++) {
+			Board start = new Board(width, height);
+			start.setStandardBoard(width, height);
+			Board board = start.copy();
+			int[] moves = new int[width * height];
+			int count = 0;
+			Piece current = Piece.BLACK;
+			Piece other = Piece.WHITE;
+			int passes = 0;
+			
+			while (passes < 2) {
+				int possible = board.generateMoves(current, other, list);
+				
+				if (possible == 0) {
+					passes++;
+				} else {
+					int move = 0;
+					
+					if (count < RANDOM_PLIES) {
+						move = list.getPosition(random.nextInt(possible));
+					} else {
+						move = search.bestMove(board, current, depth);
+					}
+					
+					board.setPiece(move, board.flipDirections(move, current, other), current);
+					moves[count] = move;
+					count++;
+					passes = 0;
+				}
+				
+				Piece swap = current;
+				current = other;
+				other = swap;
+			}
+			
+			int[] game = new int[count];
+			System.arraycopy(moves, 0, game, 0, count);
+			addGame(start, Piece.BLACK, game);
+		}
+	}
+	
+	/**
+	 * Writes the book into the given file. The records are sorted by the hash of the position.
+	 * @param file the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		
+		try {
+			output.writeLong(OpeningBook.MAGIC);
+			
+			for (Map.Entry<Long, TreeMap<Integer, int[]>> position : positions.entrySet()) {
+				for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+					output.writeLong(position.getKey());
+					output.writeInt(move.getKey());
+					output.writeInt(move.getValue()[0]);
+					output.writeInt(move.getValue()[1]);
+					output.writeInt(move.getValue()[2]);
+				}
+			}
+		} finally {
+			output.close();
+		}
+	}
+	
+	/**
+	 * Returns the games, wins and draws of the given move in the position with the given hash.
+	 * The statistics are created at the first use.
+	 * @param hash the hash of the position
+	 * @param move the move
+	 * @return the games, wins and draws of the given move
+	 */
+	private int[] statistics(long hash, int move) {
+		TreeMap<Integer, int[]> moves = positions.get(hash);
+		
+		if (moves == null) {
+			moves = new TreeMap<Integer, int[]>();
+			positions.put(hash, moves);
+		}
+		
+		int[] result = moves.get(move);
+		
+		if (result == null) {
+			result = new int[3];
+			moves.put(move, result);
+			size++;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the piece of the other player.
+	 * @param piece the piece of the one player
+	 * @return the piece of the other player
+	 */
+	private static Piece opponent(Piece piece) {
+		Piece result = Piece.BLACK;
+		
+		if (piece == Piece.BLACK) {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+}
@@ -40,6 +40,22 @@ public class Othello {
 		currentPlayer = player1;
 	}
 	
+	/**
+	 * Constructs a new Othello game with the given board. This constructor allows to choose 
+	 * the implementation of the board, for example a {@link BitBoard}.
+	 * @param board the board of the Othello game
+	 */
+	public Othello(Board board) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.board = board;
+		player1 = new Player("black", Piece.BLACK);
+		player2 = new Player("white", Piece.WHITE);
+		currentPlayer = player1;
+	}
+	
 	/**
 	 * Returns the current player of this Othello game.
 	 * @return the current player of this Othello game
@@ -56,6 +72,14 @@ public class Othello {
 		return board;
 	}
 	
+	/**
+	 * Returns the regions of the free fields of the board of this Othello game.
+	 * @return the regions of the free fields of the board of this Othello game
+	 */
+	public Regions getRegions() {
+		return board.getRegions();
+	}
+	
 	/**
 	 * Sets a standard board with the given width and height. The middle area consists of two white pieces and 
 	 * two black pieces. All other positions are free fields. 
@@ -176,6 +200,27 @@ public class Othello {
 		switchPlayers();
 	}
 	
+	/**
+	 * Sets a piece with the color of the given current piece on the given position, flips the pieces 
+	 * in the given directions and switches the current player with the other player. The position and 
+	 * the directions are the ones, which {@link #generateMoves} has stored for a possible move.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @param directions the directions, in which pieces are flipped, as a bit mask
+	 * @param current the current piece to be set
+	 */
+	public void setPiece(int position, int directions, Piece current) {
+		if (position < 0 || position > (board.getWidth() * board.getHeight()) - 1) {
+			throw new IllegalArgumentException();
+		} else if (directions < 0 || directions > 255) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		}
+		
+		board.setPiece(position, directions, current);
+		switchPlayers();
+	}
+	
 	/**
 	 * Returns {@code true} if there can be set a piece with the color of the 
 	 * given current piece anywhere on the board, {@code false} otherwise.
@@ -220,6 +265,43 @@ public class Othello {
 		return possibleMoves;
 	}
 	
+	/**
+	 * Stores all possible moves for the piece with the color of the given current piece in the given list 
+	 * and returns their number. The list is cleared before and no objects are created.
+	 * @param current the current piece to be checked
+	 * @param other the other piece to be checked
+	 * @param moves the list, which stores the possible moves
+	 * @return the number of possible moves
+	 */
+	public int generateMoves(Piece current, Piece other, MoveList moves) {
+		if (current == null || other == null || current == other 
+				|| (current != Piece.WHITE && current != Piece.BLACK) 
+				|| (other != Piece.WHITE && other != Piece.BLACK)) {
+			throw new IllegalArgumentException();
+		} else if (moves == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		return board.generateMoves(current, other, moves);
+	}
+	
+	/**
+	 * Solves the end of this Othello game with the given endgame solver and returns the best move for the 
+	 * current player. The score of the move can be read from the solver afterwards.
+	 * @param solver the endgame solver
+	 * @param exact whether the exact difference of the pieces is searched or only a win, a draw or a loss
+	 * @return the best move in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 */
+	public int solve(EndgameSolver solver, boolean exact) {
+		if (solver == null) {
+			throw new IllegalArgumentException();
+		} else if (!solver.canSolve(board)) {
+			throw new IllegalArgumentException();
+		}
+		
+		return solver.solve(board, currentPlayer.getPiece(), exact);
+	}
+	
 	/**
 	 * Returns the amount of all the pieces on this board, which have the color of the given piece.
 	 * @param piece the given piece to be checked
@@ -235,6 +317,14 @@ public class Othello {
 		return count;
 	}
 	
+	/**
+	 * Returns the Zobrist hash of the board of this Othello game, if the current player moves.
+	 * @return the Zobrist hash of the board of this Othello game
+	 */
+	public long getHash() {
+		return board.getHash(currentPlayer.getPiece());
+	}
+	
 	/**
 	 * Switches the current player with the other player.
 	 */
@@ -0,0 +1,206 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements a parallel search for the best move in the Othello game with several threads,
+ * which share one transposition table (Lazy SMP). Each thread runs its own {@link Search} on its own copy
+ * of the board. The threads share their results only through the transposition table, so that they
+ * search different parts of the game tree after a short time. Every second helper thread searches one ply
+ * deeper than the main thread to increase this effect; in a search with a time limit these helpers begin
+ * the iterative deepening one ply deeper. The threads run in a {@link ForkJoinPool}.
+ * @author Delyan Nikolov
+ */
+public class ParallelSearch {
+
+	/** the transposition table, which is shared by all threads */
+	private TranspositionTable table;
+	
+	/** the pool of the threads */
+	private ForkJoinPool pool;
+	
+	/** the number of threads */
+	private int threads;
+	
+	/** the score of the best move of the last search */
+	private int score;
+	
+	/** the depth of the last completed iteration of the last search */
+	private int depth;
+	
+	/** the number of nodes, which were searched by all threads in the last search */
+	private long nodes;
+	
+	/**
+	 * Constructs a new parallel search with the given number of threads and the given transposition table.
+	 * @param threads the number of threads
+	 * @param table the transposition table, which is shared by all threads
+	 */
+	public ParallelSearch(int threads, TranspositionTable table) {
+		if (threads < 1) {
+			throw new IllegalArgumentException();
+		} else if (table == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.threads = threads;
+		this.table = table;
+		pool = new ForkJoinPool(threads);
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board,
+	 * which is found by a search with the given depth. The given board is not changed.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param depth the depth of the search
+	 * @return the best move in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 */
+	public int bestMove(Board board, Piece current, int depth) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (depth < 1 || depth > 63) {
+			throw new IllegalArgumentException();
+		}
+		
+		return run(board, current, depth, 0L);
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board,
+	 * which is found by a search within the given time. The given board is not changed.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param millis the time for the search in milliseconds
+	 * @return the best move in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 */
+	public int bestMoveInTime(Board board, Piece current, long millis) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (millis < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return run(board, current, 0, millis);
+	}
+	
+	/**
+	 * Returns the number of threads of this search.
+	 * @return the number of threads of this search
+	 */
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Returns the score of the best move of the last search from the view of the current player.
+	 * @return the score of the best move of the last search
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * Returns the depth of the last completed iteration of the last search.
+	 * @return the depth of the last completed iteration of the last search
+	 */
+	public int getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * Returns the number of nodes, which were searched by all threads in the last search.
+	 * @return the number of nodes, which were searched by all threads in the last search
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Stops the threads of this search. The search cannot be used anymore.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/**
+	 * Runs the searches of all threads and returns the best move of the search with the deepest completed
+	 * iteration. The search of the main thread is preferred. When the main thread has finished, the
+	 * helper threads are stopped.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param depth the depth of the search or 0 if the search is limited by time
+	 * @param millis the time for the search in milliseconds if the search is limited by time
+	 * @return the best move of the search with the deepest completed iteration
+	 */
+	private int run(final Board board, final Piece current, int depth, final long millis) {
+		final Search[] searches = new Search[threads];
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		
+		for (int i = 0; i < threads; i++) {
+			final Search search = new Search(table);
+			final int searchDepth = depth + (i % 2);
+			final int firstDepth = 1 + (i % 2);
+			searches[i] = search;
+			results.add(pool.submit(new Callable<Integer>() {
+				
+				@Override
+				public Integer call() {
+					int result = 0;
+					
+					if (millis > 0L) {
+						result = search.bestMoveInTime(board, current, millis, firstDepth);
+					} else {
+						result = search.bestMove(board, current, searchDepth);
+					}
+					
+					return result;
+				}
+			
+			}));
+		}
+		
+		int result = Search.PASS;
+		int best = 0;
+		nodes = 0L;
+		
+		try {
+			result = results.get(0).get();
+			
+			for (int i = 1; i < threads; i++) {
+				searches[i].stop();
+			}
+			
+			for (int i = 1; i < threads; i++) {
+				results.get(i).get();
+				
+				if (searches[i].getDepth() > searches[best].getDepth()) {
+					best = i;
+					result = results.get(i).get();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		
+		for (int i = 0; i < threads; i++) {
+			nodes += searches[i].getNodes();
+		}
+		
+		score = searches[best].getScore();
+		this.depth = searches[best].getDepth();
+		
+		return result;
+	}
+	
+}
@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class counts the leaves of the game tree of the Othello game up to a given depth (perft). The count
+ * verifies the move generation of a board against known numbers and measures its speed. A pass is counted
+ * as a move. A finished game, in which both players cannot move, is counted as one leaf.
+ * The subtrees of the first plies are counted in parallel in a {@link ForkJoinPool}, each on its own copy
+ * of the board. Optionally the counts of already counted positions are stored in a hash table, so that
+ * positions, which are reached by different move orders, are counted only once.
+ * @author Delyan Nikolov
+ */
+public class Perft {
+
+	/** the number of plies, whose subtrees are counted in parallel */
+	private static final int SPLIT_PLIES = 2;
+	
+	/** the smallest remaining depth, whose subtrees are counted in parallel */
+	private static final int SPLIT_DEPTH = 4;
+	
+	/** the smallest remaining depth, whose count is stored in the hash table */
+	private static final int HASH_DEPTH = 2;
+	
+	/** the number added to the hash of a position for each ply of the remaining depth */
+	private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+	
+	/** the pool of the threads */
+	private ForkJoinPool pool;
+	
+	/** the hash table, which stores pairs of the key exclusive or the count and the count, or {@code null} */
+	private long[] table;
+	
+	/** the mask of the index of an entry in the hash table */
+	private int mask;
+	
+	/**
+	 * Constructs a new perft with the given number of threads and a hash table with the given size.
+	 * @param threads the number of threads
+	 * @param megabytes the size of the hash table in megabytes or 0 if no hash table is used
+	 */
+	public Perft(int threads, int megabytes) {
+		if (threads < 1) {
+			throw new IllegalArgumentException();
+		} else if (megabytes < 0 || megabytes > 8192) {
+			throw new IllegalArgumentException();
+		}
+		
+		pool = new ForkJoinPool(threads);
+		
+		if (megabytes > 0) {
+			long entries = ((long) megabytes << 20) / 16;
+			int size = 1;
+			
+			while ((long) size * 2 <= entries) {
+				size *= 2;
+			}
+			
+			table = new long[size * 2];
+			mask = size - 1;
+		}
+	}
+	
+	/**
+	 * Returns the number of leaves of the game tree with the given depth, which begins on the given board
+	 * with a move of the piece with the color of the given current piece. The given board is not changed.
+	 * @param board the board, on which the game tree begins
+	 * @param current the piece, which moves first
+	 * @param depth the depth of the game tree
+	 * @return the number of leaves of the game tree
+	 */
+	public long perft(Board board, Piece current, int depth) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (depth < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		return pool.invoke(new Task(board.copy(), current, depth, SPLIT_PLIES));
+	}
+	
+	/**
+	 * Stops the threads of this perft. The perft cannot be used anymore.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/**
+	 * Returns the number of leaves of the game tree with the given depth, which begins on the given board.
+	 * The subtrees are counted one after another on the given board.
+	 * @param board the board, on which the game tree begins
+	 * @param current the piece, which moves first
+	 * @param depth the depth of the game tree
+	 * @param moves the lists of the possible moves for each remaining depth
+	 * @return the number of leaves of the game tree
+	 */
+	private long count(Board board, Piece current, int depth, MoveList[] moves) {
+		long result = 0L;
+		Piece other = opponent(current);
+		
+		if (depth == 0) {
+			result = 1L;
+		} else if (depth == 1) {
+			result = Math.max(1, board.generateMoves(current, other, moves[depth]));
+		} else {
+			long key = 0L;
+			
+			if (table != null && depth >= HASH_DEPTH) {
+				key = board.getHash(current) + (depth * DEPTH_KEY);
+				result = probe(key);
+			}
+			
+			if (result == 0L) {
+				MoveList list = moves[depth];
+				int count = board.generateMoves(current, other, list);
+				
+				if (count == 0) {
+					if (board.generateMoves(other, current, list) == 0) {
+						result = 1L;
+					} else {
+						result = count(board, other, depth - 1, moves);
+					}
+				} else {
+					for (int i = 0; i < count; i++) {
+						board.makeMove(list.getPosition(i), list.getDirections(i), current);
+						result += count(board, other, depth - 1, moves);
+						board.unmakeMove();
+					}
+				}
+				
+				if (table != null && depth >= HASH_DEPTH) {
+					store(key, result);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the count, which is stored in the hash table for the given key, or 0 if there is no such count.
+	 * @param key the key of the position and the remaining depth
+	 * @return the count, which is stored for the given key, or 0
+	 */
+	private long probe(long key) {
+		int index = ((int) (key ^ (key >>> 32)) & mask) * 2;
+		long count = table[index + 1];
+		long result = 0L;
+		
+		if (count != 0L && (table[index] ^ count) == key) {
+			result = count;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Stores the given count for the given key in the hash table. An entry, which was written by two threads
+	 * at the same time, does not match its key and is ignored by {@link #probe}.
+	 * @param key the key of the position and the remaining depth
+	 * @param count the count to be stored
+	 */
+	private void store(long key, long count) {
+		int index = ((int) (key ^ (key >>> 32)) & mask) * 2;
+		table[index] = key ^ count;
+		table[index + 1] = count;
+	}
+	
+	/**
+	 * Returns the piece of the other player.
+	 * @param piece the piece of the one player
+	 * @return the piece of the other player
+	 */
+	private static Piece opponent(Piece piece) {
+		Piece result = Piece.BLACK;
+		
+		if (piece == Piece.BLACK) {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * This class counts the leaves of a subtree. In the first plies each subtree of a move is counted by its own
+	 * task on its own copy of the board, the deeper plies are counted by {@link Perft#count}.
+	 */
+	private class Task extends RecursiveTask<Long> {
+		
+		/** the serial version UID of this task */
+		private static final long serialVersionUID = 1L;
+		
+		/** the board, on which the subtree begins and which belongs only to this task */
+		private Board board;
+		
+		/** the piece, which moves first */
+		private Piece current;
+		
+		/** the depth of the subtree */
+		private int depth;
+		
+		/** the number of plies, whose subtrees are counted by their own tasks */
+		private int split;
+		
+		/**
+		 * Constructs a new task, which counts the leaves of the subtree with the given parameters.
+		 * @param board the board, on which the subtree begins and which belongs only to this task
+		 * @param current the piece, which moves first
+		 * @param depth the depth of the subtree
+		 * @param split the number of plies, whose subtrees are counted by their own tasks
+		 */
+		Task(Board board, Piece current, int depth, int split) {
+			this.board = board;
+			this.current = current;
+			this.depth = depth;
+			this.split = split;
+		}
+		
+		/**
+		 * Counts the leaves of the subtree of this task.
+		 * @return the number of leaves of the subtree
+		 */
+		@Override
+		protected Long compute() {
+			long result = 0L;
+			Piece other = opponent(current);
+			MoveList list = new MoveList(board.getWidth() * board.getHeight());
+			
+			if (split > 0 && depth >= SPLIT_DEPTH && board.generateMoves(current, other, list) > 0) {
+				List<Task> tasks = new ArrayList<Task>();
+				
+				for (int i = 0; i < list.size(); i++) {
+					Board copy = board.copy();
+					copy.setPiece(list.getPosition(i), list.getDirections(i), current);
+					tasks.add(new Task(copy, other, depth - 1, split - 1));
+				}
+				
+				invokeAll(tasks);
+				
+				for (Task task : tasks) {
+					result += task.join();
+				}
+			} else {
+				MoveList[] moves = new MoveList[depth + 1];
+				
+				for (int i = 0; i <= depth; i++) {
+					moves[i] = new MoveList(board.getWidth() * board.getHeight());
+				}
+				
+				result = count(board, current, depth, moves);
+			}
+			
+			return result;
+		}
+	
+	}
+	
+}
@@ -0,0 +1,304 @@
+/**
+ * This class models the regions of the free fields of a board of the Othello game. Two free fields belong to the
+ * same region, if they are connected by free fields, which are next to each other. Holes and pieces separate the
+ * regions, so that a board with many holes usually consists of many small regions.
+ * <p>
+ * The regions are stored in a union-find structure, in which each region is represented by one of its positions,
+ * and the positions of each region are linked in a circular list. The regions are computed once from a board and
+ * then updated when a free field is filled or freed again. Filling a free field can split its region, so that
+ * only this region is computed again; freeing a field merges it with the regions next to it. The number of
+ * regions with an odd number of free fields is counted with each change, because the player, who moves first in
+ * such a region, usually also moves last in it.
+ * @author Delyan Nikolov
+ */
+public class Regions {
+
+	/** width of the board */
+	private int width;
+	
+	/** height of the board */
+	private int height;
+	
+	/** the parent of each free field in the union-find structure or -1 for a field, which is not free */
+	private int[] parent;
+	
+	/** the number of free fields of the region of each representing position */
+	private int[] size;
+	
+	/** the next position of each free field in the circular list of its region */
+	private int[] next;
+	
+	/** the positions of the region, which is computed again */
+	private int[] cells;
+	
+	/** the number of regions */
+	private int regions;
+	
+	/** the number of regions with an odd number of free fields */
+	private int oddRegions;
+	
+	/**
+	 * Constructs new regions for boards with the given width and height. There are no free fields
+	 * until the regions are computed from a board.
+	 * @param width width of the board
+	 * @param height height of the board
+	 */
+	public Regions(int width, int height) {
+		if (width < 2 || width > 26 || width % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (height < 2 || height > 98 || height % 2 != 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.width = width;
+		this.height = height;
+		parent = new int[width * height];
+		size = new int[width * height];
+		next = new int[width * height];
+		cells = new int[width * height];
+		
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = -1;
+		}
+	}
+	
+	/**
+	 * Computes the regions of the free fields of the given board. Each free field is united with the free fields
+	 * next to it, which were already visited, so that the board is scanned only once.
+	 * @param board the board with the width and the height of these regions
+	 */
+	public void compute(Board board) {
+		if (board == null || board.getWidth() != width || board.getHeight() != height) {
+			throw new IllegalArgumentException();
+		}
+		
+		regions = 0;
+		oddRegions = 0;
+		
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				int position = (i * width) + j;
+				parent[position] = -1;
+				
+				if (board.getBoard()[i][j] == Piece.FREE) {
+					makeRegion(position);
+					
+					if (j > 0) {
+						union(position, position - 1);
+					}
+					
+					if (i > 0) {
+						for (int x = Math.max(0, j - 1); x <= Math.min(width - 1, j + 1); x++) {
+							union(position, position - width - j + x);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Fills the free field with the given position. The region of the field is computed again,
+	 * because it can be split into several regions.
+	 * @param position the position of the free field in the form {@code height * width of the board + width}
+	 */
+	public void remove(int position) {
+		if (!isFree(position)) {
+			throw new IllegalArgumentException();
+		}
+		
+		int root = find(position);
+		regions--;
+		oddRegions -= size[root] & 1;
+		int count = 0;
+		
+		for (int i = next[position]; i != position; i = next[i]) {
+			cells[count] = i;
+			count++;
+		}
+		
+		parent[position] = -1;
+		
+		for (int i = 0; i < count; i++) {
+			makeRegion(cells[i]);
+		}
+		
+		for (int i = 0; i < count; i++) {
+			unionNeighbours(cells[i]);
+		}
+	}
+	
+	/**
+	 * Frees the field with the given position, which is merged with the regions next to it.
+	 * @param position the position of the field in the form {@code height * width of the board + width}
+	 */
+	public void add(int position) {
+		if (position < 0 || position > (width * height) - 1 || isFree(position)) {
+			throw new IllegalArgumentException();
+		}
+		
+		makeRegion(position);
+		unionNeighbours(position);
+	}
+	
+	/**
+	 * Returns {@code true} if the field with the given position is free, {@code false} otherwise.
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @return {@code true} if the field with the given position is free, {@code false} otherwise
+	 */
+	public boolean isFree(int position) {
+		if (position < 0 || position > (width * height) - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return parent[position] != -1;
+	}
+	
+	/**
+	 * Returns the number of regions.
+	 * @return the number of regions
+	 */
+	public int numberOfRegions() {
+		return regions;
+	}
+	
+	/**
+	 * Returns the number of regions with an odd number of free fields.
+	 * @return the number of regions with an odd number of free fields
+	 */
+	public int numberOfOddRegions() {
+		return oddRegions;
+	}
+	
+	/**
+	 * Returns the position, which represents the region of the free field with the given position. Two free fields
+	 * belong to the same region, if they are represented by the same position.
+	 * @param position the position of the free field in the form {@code height * width of the board + width}
+	 * @return the position, which represents the region of the free field with the given position
+	 */
+	public int getRegion(int position) {
+		if (!isFree(position)) {
+			throw new IllegalArgumentException();
+		}
+		
+		return find(position);
+	}
+	
+	/**
+	 * Returns the number of free fields of the region of the free field with the given position.
+	 * @param position the position of the free field in the form {@code height * width of the board + width}
+	 * @return the number of free fields of the region of the free field with the given position
+	 */
+	public int getSize(int position) {
+		return size[getRegion(position)];
+	}
+	
+	/**
+	 * Returns {@code true} if the region of the free field with the given position has an odd number
+	 * of free fields, {@code false} otherwise.
+	 * @param position the position of the free field in the form {@code height * width of the board + width}
+	 * @return {@code true} if the region of the free field has an odd number of free fields, {@code false} otherwise
+	 */
+	public boolean isOdd(int position) {
+		return (getSize(position) & 1) == 1;
+	}
+	
+	/**
+	 * Stores the positions of the region of the free field with the given position in the given array
+	 * and returns their number.
+	 * @param position the position of the free field in the form {@code height * width of the board + width}
+	 * @param positions the array, which stores the positions of the region
+	 * @return the number of free fields of the region
+	 */
+	public int getPositions(int position, int[] positions) {
+		if (positions == null || positions.length < getSize(position)) {
+			throw new IllegalArgumentException();
+		}
+		
+		int result = 0;
+		int i = position;
+		
+		do {
+			positions[result] = i;
+			result++;
+			i = next[i];
+		} while (i != position);
+		
+		return result;
+	}
+	
+	/**
+	 * Makes the given position a region of its own.
+	 * @param position the position of a free field
+	 */
+	private void makeRegion(int position) {
+		parent[position] = position;
+		size[position] = 1;
+		next[position] = position;
+		regions++;
+		oddRegions++;
+	}
+	
+	/**
+	 * Unites the region of the given position with the regions of the free fields next to it.
+	 * @param position the position of a free field
+	 */
+	private void unionNeighbours(int position) {
+		int w = position % width;
+		int h = position / width;
+		
+		for (int y = Math.max(0, h - 1); y <= Math.min(height - 1, h + 1); y++) {
+			for (int x = Math.max(0, w - 1); x <= Math.min(width - 1, w + 1); x++) {
+				union(position, (y * width) + x);
+			}
+		}
+	}
+	
+	/**
+	 * Unites the regions of the two given positions if the second position is a free field. The smaller region
+	 * is attached to the larger one and the circular lists of the positions are joined.
+	 * @param first the position of a free field
+	 * @param second the second position
+	 */
+	private void union(int first, int second) {
+		if (parent[second] != -1) {
+			int a = find(first);
+			int b = find(second);
+			
+			if (a != b) {
+				if (size[a] < size[b]) {
+					int swap = a;
+					a = b;
+					b = swap;
+				}
+				
+				oddRegions -= (size[a] & 1) + (size[b] & 1);
+				parent[b] = a;
+				size[a] += size[b];
+				oddRegions += size[a] & 1;
+				regions--;
+				int swap = next[a];
+				next[a] = next[b];
+				next[b] = swap;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the position, which represents the region of the given free field. The path to this position
+	 * is halved on the way.
+	 * @param position the position of a free field
+	 * @return the position, which represents the region of the given free field
+	 */
+	private int find(int position) {
+		int result = position;
+		
+		while (parent[result] != result) {
+			parent[result] = parent[parent[result]];
+			result = parent[result];
+		}
+		
+		return result;
+	}
+	
+}
@@ -0,0 +1,603 @@
+/**
+ * This class implements a search for the best move in the Othello game. It runs a negamax search with
+ * alpha-beta pruning and principal variation search and deepens the search iteratively, so that the
+ * search can be stopped after a given time. The search works on its own copy of the board and uses
+ * {@link Board#makeMove} and {@link Board#unmakeMove}, so that no board is copied during the search.
+ * If a player cannot move, the player passes. If both players cannot move, the game is over.
+ * The moves are ordered by a {@link MoveOrdering}, which can be switched off, so that only the best move of
+ * the transposition table is searched first. If {@link SearchStatistics} are set, the search records the
+ * statistics of each completed iteration.
+ * @author Delyan Nikolov
+ */
+public class Search {
+
+	/** the move, which is returned if the current player has to pass */
+	public static final int PASS = -1;
+	
+	/** the score of a won game without the difference of the pieces */
+	public static final int WIN = 1000000;
+	
+	/** a score, which is greater than all other scores */
+	private static final int INFINITY = 2000000;
+	
+	/** the maximal depth of the iterative deepening */
+	private static final int MAX_DEPTH = 64;
+	
+	/** the number of positions times the number of nodes between two checks of the time */
+	private static final int CHECK_WORK = 1 << 16;
+	
+	/** the score of each possible move more than the other player */
+	private static final int MOBILITY = 8;
+	
+	/** the smallest remaining depth, for which the moves are ordered by the mobility of the other player */
+	private static final int MOBILITY_DEPTH = 3;
+	
+	/** the transposition table, which stores the results of the searched positions, or {@code null} */
+	private TranspositionTable table;
+	
+	/** the board, which is searched */
+	private Board board;
+	
+	/** the lists of the possible moves for each ply */
+	private MoveList[] moves;
+	
+	/** the evaluation of the positions with pattern tables */
+	private Evaluation evaluation;
+	
+	/** the list of the possible moves for the evaluation */
+	private MoveList evaluationMoves;
+	
+	/** the number of searched nodes */
+	private long nodes;
+	
+	/** the time in nanoseconds, when the search stops, or 0 if the search is not stopped */
+	private long deadline;
+	
+	/** the number of nodes between two checks of the time minus one, which is smaller on larger boards */
+	private int checkNodes;
+	
+	/** shows whether the search was stopped */
+	private boolean stopped;
+	
+	/** shows whether the search was stopped by another thread */
+	private volatile boolean aborted;
+	
+	/** the best move, which was found so far */
+	private volatile int bestMove;
+	
+	/** the score of the best move, which was found so far */
+	private int score;
+	
+	/** the depth of the last completed iteration */
+	private int depth;
+	
+	/** the statistics of the iterations or {@code null} if no statistics are collected */
+	private SearchStatistics statistics;
+	
+	/** the ordering of the moves or {@code null} if it is not yet created */
+	private MoveOrdering ordering;
+	
+	/** shows whether the moves are ordered by the move ordering */
+	private boolean ordered = true;
+	
+	/**
+	 * Constructs a new search without a transposition table.
+	 */
+	public Search() {
+		this(null);
+	}
+	
+	/**
+	 * Constructs a new search, which stores the results of the searched positions in the given
+	 * transposition table. The table can be shared by several searches.
+	 * @param table the transposition table or {@code null} if no table is used
+	 */
+	public Search(TranspositionTable table) {
+		this.table = table;
+	}
+	
+	/**
+	 * Returns the transposition table of this search or {@code null} if no table is used.
+	 * @return the transposition table of this search
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+	
+	/**
+	 * Switches the move ordering on or off. Without the move ordering only the best move of the transposition
+	 * table is searched first. The move ordering is on by default.
+	 * @param ordered whether the moves are ordered by the move ordering
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+	
+	/**
+	 * Sets the statistics, which record the iterations of the following searches.
+	 * @param statistics the statistics or {@code null} if no statistics are collected
+	 */
+	public void setStatistics(SearchStatistics statistics) {
+		this.statistics = statistics;
+	}
+	
+	/**
+	 * Returns the statistics of the last search or {@code null} if no statistics are collected.
+	 * @return the statistics of the last search
+	 */
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board,
+	 * which is found by a search with the given depth. The move is returned in the form
+	 * {@code height * width of the board + width} or {@link #PASS} if there is no possible move.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param depth the depth of the search
+	 * @return the best move for the piece with the color of the given current piece
+	 */
+	public int bestMove(Board board, Piece current, int depth) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (depth < 1 || depth > MAX_DEPTH) {
+			throw new IllegalArgumentException();
+		}
+		
+		return iterate(board, current, 1, depth, 0L);
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board,
+	 * which is found by a search within the given time. The search is deepened until the time is over and
+	 * the best move, which was found so far, is returned. The move is returned in the form
+	 * {@code height * width of the board + width} or {@link #PASS} if there is no possible move.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param millis the time for the search in milliseconds
+	 * @return the best move for the piece with the color of the given current piece
+	 */
+	public int bestMoveInTime(Board board, Piece current, long millis) {
+		return bestMoveInTime(board, current, millis, 1);
+	}
+	
+	/**
+	 * Returns the best move for the piece with the color of the given current piece on the given board,
+	 * which is found by a search within the given time like {@link #bestMoveInTime(Board, Piece, long)},
+	 * but the first iteration of the search has the given depth instead of 1.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param millis the time for the search in milliseconds
+	 * @param firstDepth the depth of the first iteration
+	 * @return the best move for the piece with the color of the given current piece
+	 */
+	public int bestMoveInTime(Board board, Piece current, long millis, int firstDepth) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		} else if (current != Piece.WHITE && current != Piece.BLACK) {
+			throw new IllegalArgumentException();
+		} else if (millis < 1) {
+			throw new IllegalArgumentException();
+		} else if (firstDepth < 1 || firstDepth > MAX_DEPTH) {
+			throw new IllegalArgumentException();
+		}
+		
+		return iterate(board, current, firstDepth, MAX_DEPTH, System.nanoTime() + (millis * 1000000L));
+	}
+	
+	/**
+	 * Stops the running search and all following searches of this object as soon as possible. A stopped 
+	 * search returns the best move, which was found so far. This method can be called by another thread.
+	 */
+	public void stop() {
+		aborted = true;
+	}
+	
+	/**
+	 * Returns the best move, which was found so far by the running or the last search, in the form
+	 * {@code height * width of the board + width} or {@link #PASS}. The move is the best move of the last
+	 * completed iteration unless the running iteration has already found a better move. This method can be
+	 * called by another thread, so that a move is always ready.
+	 * @return the best move, which was found so far
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+	
+	/**
+	 * Returns the score of the best move of the last search from the view of the current player.
+	 * @return the score of the best move of the last search
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * Returns the depth of the last completed iteration of the last search.
+	 * @return the depth of the last completed iteration of the last search
+	 */
+	public int getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * Returns the number of nodes, which were searched by the last search.
+	 * @return the number of nodes, which were searched by the last search
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Searches a copy of the given board with increasing depth from the given first depth until the given depth
+	 * is reached or the search is stopped and returns the best move, which was found so far. A move of a stopped
+	 * iteration replaces the best move of the last completed iteration only if its search was completed and
+	 * it is better.
+	 * If the current player has to pass, the position after the pass is searched like in {@link #negamax} and
+	 * its negated score is the score of the pass. If the game is over, the score is the final score.
+	 * @param board the board to be searched
+	 * @param current the current piece
+	 * @param firstDepth the depth of the first iteration
+	 * @param maxDepth the maximal depth of the search
+	 * @param deadline the time in nanoseconds, when the search stops, or 0 if the search is not stopped
+	 * @return the best move, which was found so far
+	 */
+	private int iterate(Board board, Piece current, int firstDepth, int maxDepth, long deadline) {
+		this.board = board.copy();
+		this.deadline = deadline;
+		moves = new MoveList[(2 * maxDepth) + 2];
+		evaluationMoves = new MoveList(board.getWidth() * board.getHeight());
+		
+		if (evaluation == null || !evaluation.matches(board)) {
+			evaluation = new Evaluation(board);
+		}
+		
+		checkNodes = Integer.highestOneBit(Math.max(1, CHECK_WORK / (board.getWidth() * board.getHeight()))) - 1;
+		nodes = 0L;
+		stopped = false;
+		bestMove = PASS;
+		score = 0;
+		depth = 0;
+		
+		if (statistics != null) {
+			statistics.clear();
+		}
+		
+		if (ordered) {
+			if (ordering == null || ordering.getSize() != board.getWidth() * board.getHeight()) {
+				ordering = new MoveOrdering(board.getWidth() * board.getHeight(), (2 * MAX_DEPTH) + 2);
+			}
+			
+			ordering.newSearch();
+		}
+		
+		Piece other = opponent(current);
+		MoveList rootMoves = moveList(0);
+		int count = this.board.generateMoves(current, other, rootMoves);
+		
+		if (count > 0) {
+			int[] positions = new int[count];
+			int[] directions = new int[count];
+			
+			for (int i = 0; i < count; i++) {
+				positions[i] = rootMoves.getPosition(i);
+				directions[i] = rootMoves.getDirections(i);
+			}
+			
+			bestMove = positions[0];
+			
+			for (int d = firstDepth; d <= maxDepth && !stopped; d++) {
+				int alpha = -INFINITY;
+				int best = 0;
+				
+				if (statistics != null) {
+					statistics.beginIteration(nodes);
+				}
+				
+				for (int i = 0; i < count && !stopped; i++) {
+					this.board.makeMove(positions[i], directions[i], current);
+					int value = 0;
+					
+					if (i == 0) {
+						value = -negamax(other, current, d - 1, -INFINITY, -alpha, 1, false);
+					} else {
+						value = -negamax(other, current, d - 1, -alpha - 1, -alpha, 1, false);
+						
+						if (value > alpha && !stopped) {
+							value = -negamax(other, current, d - 1, -INFINITY, -alpha, 1, false);
+						}
+					}
+					
+					this.board.unmakeMove();
+					
+					if (!stopped && value > alpha) {
+						alpha = value;
+						best = i;
+						
+						if (i > 0) {
+							bestMove = positions[i];
+						}
+					}
+				}
+				
+				if (stopped && best > 0) {
+					score = alpha;
+				} else if (!stopped) {
+					moveToFront(positions, directions, best);
+					bestMove = positions[0];
+					score = alpha;
+					depth = d;
+					
+					if (statistics != null) {
+						statistics.endIteration(d, nodes);
+					}
+				}
+			}
+		} else if (this.board.possibleMove(other, current)) {
+			for (int d = firstDepth; d <= maxDepth && !stopped; d++) {
+				if (statistics != null) {
+					statistics.beginIteration(nodes);
+				}
+				
+				int value = -negamax(other, current, d, -INFINITY, INFINITY, 1, true);
+				
+				if (!stopped) {
+					score = value;
+					depth = d;
+					
+					if (statistics != null) {
+						statistics.endIteration(d, nodes);
+					}
+				}
+			}
+		} else {
+			score = finalScore(current, other);
+		}
+		
+		this.board = null;
+		
+		return bestMove;
+	}
+	
+	/**
+	 * Returns the score of the current position from the view of the given current piece, which is found
+	 * by a negamax search with alpha-beta pruning and principal variation search. If the transposition table
+	 * stores a result with enough depth, the result is used. Otherwise the stored best move is searched first.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param remaining the remaining depth of the search
+	 * @param alpha the lower bound of the score
+	 * @param beta the upper bound of the score
+	 * @param ply the distance to the root of the search
+	 * @param passed whether the other player has passed before
+	 * @return the score of the current position
+	 */
+	private int negamax(Piece current, Piece other, int remaining, int alpha, int beta, int ply, boolean passed) {
+		nodes++;
+		
+		if ((nodes & checkNodes) == 0 && (aborted || (deadline != 0L && System.nanoTime() > deadline))) {
+			stopped = true;
+		}
+		
+		int result = 0;
+		
+		if (stopped) {
+			result = 0;
+		} else if (remaining == 0) {
+			result = evaluate(current, other);
+		} else {
+			long hash = board.getHash(current);
+			int hashMove = PASS;
+			boolean found = false;
+			
+			if (table != null) {
+				long data = table.probe(hash);
+				
+				if (statistics != null) {
+					statistics.probe(data != 0L);
+				}
+				
+				if (data != 0L) {
+					hashMove = TranspositionTable.getMove(data);
+					int bound = TranspositionTable.getBound(data);
+					result = TranspositionTable.getScore(data);
+					
+					if (TranspositionTable.getDepth(data) >= remaining && (bound == TranspositionTable.EXACT
+							|| (bound == TranspositionTable.LOWER && result >= beta)
+							|| (bound == TranspositionTable.UPPER && result <= alpha))) {
+						found = true;
+					}
+				}
+			}
+			
+			if (!found) {
+				result = search(current, other, remaining, alpha, beta, ply, passed, hash, hashMove);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the current position from the view of the given current piece by searching
+	 * all possible moves and stores the result in the transposition table.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @param remaining the remaining depth of the search
+	 * @param alpha the lower bound of the score
+	 * @param beta the upper bound of the score
+	 * @param ply the distance to the root of the search
+	 * @param passed whether the other player has passed before
+	 * @param hash the hash of the current position
+	 * @param hashMove the best move, which is stored in the transposition table, or {@link #PASS}
+	 * @return the score of the current position
+	 */
+	private int search(Piece current, Piece other, int remaining, int alpha, int beta, int ply, boolean passed,
+			long hash, int hashMove) {
+		int result = 0;
+		int best = PASS;
+		int alphaOriginal = alpha;
+		MoveList list = moveList(ply);
+		int count = board.generateMoves(current, other, list);
+		
+		if (count == 0) {
+			if (passed) {
+				result = finalScore(current, other);
+			} else {
+				result = -negamax(other, current, remaining, -beta, -alpha, ply + 1, true);
+			}
+		} else {
+			result = -INFINITY;
+			
+			if (ordered) {
+				ordering.order(board, current, other, list, ply, hashMove, remaining >= MOBILITY_DEPTH);
+			} else {
+				for (int i = 1; i < count && hashMove != PASS; i++) {
+					if (list.getPosition(i) == hashMove) {
+						list.swap(0, i);
+						hashMove = PASS;
+					}
+				}
+			}
+			
+			for (int i = 0; i < count && alpha < beta; i++) {
+				board.makeMove(list.getPosition(i), list.getDirections(i), current);
+				int value = 0;
+				
+				if (i == 0) {
+					value = -negamax(other, current, remaining - 1, -beta, -alpha, ply + 1, false);
+				} else {
+					value = -negamax(other, current, remaining - 1, -alpha - 1, -alpha, ply + 1, false);
+					
+					if (value > alpha && value < beta && !stopped) {
+						value = -negamax(other, current, remaining - 1, -beta, -alpha, ply + 1, false);
+					}
+				}
+				
+				board.unmakeMove();
+				
+				if (value > result) {
+					result = value;
+					best = list.getPosition(i);
+					
+					if (value > alpha) {
+						alpha = value;
+						
+						if (alpha >= beta && ordered) {
+							ordering.cutoff(best, ply, remaining);
+						}
+						
+						if (alpha >= beta && statistics != null) {
+							statistics.cutoff(i == 0);
+						}
+					}
+				}
+			}
+		}
+		
+		if (table != null && !stopped) {
+			int bound = TranspositionTable.EXACT;
+			
+			if (result <= alphaOriginal) {
+				bound = TranspositionTable.UPPER;
+			} else if (result >= beta) {
+				bound = TranspositionTable.LOWER;
+			}
+			
+			boolean collision = table.store(hash, remaining, bound, result, best);
+			
+			if (statistics != null) {
+				statistics.store(collision);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of the current position from the view of the given current piece.
+	 * The score considers the difference of the possible moves of both players and the pattern tables of the
+	 * {@link Evaluation}.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @return the score of the current position
+	 */
+	private int evaluate(Piece current, Piece other) {
+		int result = MOBILITY * (board.generateMoves(current, other, evaluationMoves)
+				- board.generateMoves(other, current, evaluationMoves));
+		result += evaluation.evaluate(board, current);
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the score of a finished game from the view of the given current piece.
+	 * A won game has a score of at least {@link #WIN}.
+	 * @param current the piece, which moves
+	 * @param other the other piece
+	 * @return the score of a finished game
+	 */
+	private int finalScore(Piece current, Piece other) {
+		int difference = board.numberOfPieces(current) - board.numberOfPieces(other);
+		int result = 0;
+		
+		if (difference > 0) {
+			result = WIN + difference;
+		} else if (difference < 0) {
+			result = -WIN + difference;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the list of the possible moves for the given ply. The list is created at the first use.
+	 * @param ply the distance to the root of the search
+	 * @return the list of the possible moves for the given ply
+	 */
+	private MoveList moveList(int ply) {
+		if (moves[ply] == null) {
+			moves[ply] = new MoveList(board.getWidth() * board.getHeight());
+		}
+		
+		return moves[ply];
+	}
+	
+	/**
+	 * Moves the move with the given index to the front of the given arrays and keeps the order of the other moves.
+	 * @param positions the positions of the moves
+	 * @param directions the directions of the moves
+	 * @param index the index of the move
+	 */
+	private static void moveToFront(int[] positions, int[] directions, int index) {
+		int position = positions[index];
+		int direction = directions[index];
+		
+		for (int i = index; i > 0; i--) {
+			positions[i] = positions[i - 1];
+			directions[i] = directions[i - 1];
+		}
+		
+		positions[0] = position;
+		directions[0] = direction;
+	}
+	
+	/**
+	 * Returns the piece of the other player.
+	 * @param piece the piece of the one player
+	 * @return the piece of the other player
+	 */
+	private static Piece opponent(Piece piece) {
+		Piece result = Piece.BLACK;
+		
+		if (piece == Piece.BLACK) {
+			result = Piece.WHITE;
+		}
+		
+		return result;
+	}
+	
+}
@@ -0,0 +1,98 @@
+import java.util.List;
+
+/**
+ * This class measures the effect of the {@link MoveOrdering} on the search in the Othello game. The same
+ * reproducible positions of the {@link Benchmark} are searched to the same depth, once with only the best move
+ * of the transposition table searched first and once with the move ordering. For each board size and phase of
+ * the game the number of nodes and the time of both searches and the ratio of their nodes are printed.
+ * Each search begins with an empty transposition table, which is allocated once and cleared outside
+ * the measured time.
+ * @author Delyan Nikolov
+ */
+public final class SearchBenchmark {
+
+	/** the board sizes as pairs of width and height */
+	private static final int[][] SIZES = {{8, 8}, {16, 16}};
+	
+	/** the default depth of the search for each board size */
+	private static final int[] DEFAULT_DEPTHS = {8, 5};
+	
+	/** the phases of the game as the part of the free fields, which are filled with pieces */
+	private static final double[] PHASES = {0.1, 0.5};
+	
+	/** the names of the phases of the game */
+	private static final String[] PHASE_NAMES = {"opening", "midgame"};
+	
+	/** the number of searched positions for each measurement */
+	private static final int POSITIONS = 8;
+	
+	/** the size of the transposition table of the search in megabytes */
+	private static final int TABLE_SIZE = 16;
+	
+	/**
+	 * Private constructor.
+	 */
+	private SearchBenchmark() {
+	}
+	
+	/**
+	 * main method - runs all measurements
+	 * @param args command-line arguments - optionally the depth of the search for each board size
+	 */
+	public static void main(String[] args) {
+		int[] depths = DEFAULT_DEPTHS.clone();
+		
+		for (int i = 0; i < args.length && i < depths.length; i++) {
+			depths[i] = Integer.parseInt(args[i]);
+		}
+		
+		System.out.println(String.format("%-8s %-8s %5s %14s %10s %14s %10s %8s", "size", "phase", "depth",
+				"nodes", "ms", "ordered nodes", "ms", "ratio"));
+		
+		for (int s = 0; s < SIZES.length; s++) {
+			for (int p = 0; p < PHASES.length; p++) {
+				List<Board> boards = Benchmark.positions(SIZES[s][0], SIZES[s][1], 0.0, PHASES[p], false);
+				long[] unordered = measure(boards, depths[s], false);
+				long[] ordered = measure(boards, depths[s], true);
+				System.out.println(String.format("%-8s %-8s %5d %14d %10d %14d %10d %8.2f",
+						SIZES[s][0] + "x" + SIZES[s][1], PHASE_NAMES[p], depths[s], unordered[0], unordered[1],
+						ordered[0], ordered[1], (double) unordered[0] / Math.max(1L, ordered[0])));
+			}
+		}
+	}
+	
+	/**
+	 * Searches the first positions of the given positions to the given depth and returns the number of nodes
+	 * and the time of the searches in milliseconds. The players, who move, alternate between the positions.
+	 * @param boards the positions
+	 * @param depth the depth of the search
+	 * @param ordered whether the moves are ordered by the move ordering
+	 * @return the number of nodes and the time in milliseconds
+	 */
+	private static long[] measure(List<Board> boards, int depth, boolean ordered) {
+		long[] result = new long[2];
+		TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+		long time = 0L;
+		
+		for (int i = 0; i < POSITIONS && i < boards.size(); i++) {
+			table.clear();
+			Search search = new Search(table);
+			search.setOrdered(ordered);
+			Piece current = Piece.BLACK;
+			
+			if (i % 2 == 1) {
+				current = Piece.WHITE;
+			}
+			
+			long start = System.nanoTime();
+			search.bestMove(boards.get(i), current, depth);
+			time += System.nanoTime() - start;
+			result[0] += search.getNodes();
+		}
+		
+		result[1] = time / 1000000L;
+		
+		return result;
+	}
+	
+}
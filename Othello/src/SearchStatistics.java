@@ -0,0 +1,302 @@
+/**
+ * This class collects statistics of the iterations of a {@link Search}: the depth, the number of nodes, the time,
+ * the nodes per second, the effective branching factor, the rate of the cutoffs at the first move and the hit and
+ * collision rates of the transposition table. A search collects statistics only if statistics are set, so that a
+ * search without statistics only checks one field, when it probes or stores an entry of the transposition table,
+ * when a move causes a cutoff and once per iteration. The transposition table itself counts nothing, so that the
+ * threads of a parallel search, which share the table, do not write to the same fields at each node.
+ * <p>
+ * The statistics of a search replace the statistics of the previous search.
+ * @author Delyan Nikolov
+ */
+public class SearchStatistics {
+
+	/** the maximal number of iterations, which are recorded */
+	private static final int MAX_ITERATIONS = 64;
+	
+	/** the depth of each iteration */
+	private int[] depths = new int[MAX_ITERATIONS];
+	
+	/** the number of nodes of each iteration */
+	private long[] nodes = new long[MAX_ITERATIONS];
+	
+	/** the time of each iteration in nanoseconds */
+	private long[] times = new long[MAX_ITERATIONS];
+	
+	/** the number of cutoffs of each iteration */
+	private long[] cutoffs = new long[MAX_ITERATIONS];
+	
+	/** the number of cutoffs at the first move of each iteration */
+	private long[] firstCutoffs = new long[MAX_ITERATIONS];
+	
+	/** the number of probes of the transposition table, which found the position, in each iteration */
+	private long[] hits = new long[MAX_ITERATIONS];
+	
+	/** the number of probes of the transposition table, which did not find the position, in each iteration */
+	private long[] misses = new long[MAX_ITERATIONS];
+	
+	/** the number of entries, which were stored in the transposition table in each iteration */
+	private long[] stores = new long[MAX_ITERATIONS];
+	
+	/** the number of stored entries, which replaced an entry of another position, in each iteration */
+	private long[] collisions = new long[MAX_ITERATIONS];
+	
+	/** the number of recorded iterations */
+	private int iterations;
+	
+	/** the time in nanoseconds, when the current iteration began */
+	private long start;
+	
+	/** the number of nodes of the search, when the current iteration began */
+	private long startNodes;
+	
+	/** the number of cutoffs of the current iteration */
+	private long currentCutoffs;
+	
+	/** the number of cutoffs at the first move of the current iteration */
+	private long currentFirstCutoffs;
+	
+	/** the number of probes of the current iteration, which found the position */
+	private long currentHits;
+	
+	/** the number of probes of the current iteration, which did not find the position */
+	private long currentMisses;
+	
+	/** the number of stored entries of the current iteration */
+	private long currentStores;
+	
+	/** the number of stored entries of the current iteration, which replaced an entry of another position */
+	private long currentCollisions;
+	
+	/**
+	 * Removes all recorded iterations. This method is called at the beginning of each search.
+	 */
+	public void clear() {
+		iterations = 0;
+	}
+	
+	/**
+	 * Begins a new iteration of the search.
+	 * @param searchNodes the number of nodes, which the search has searched before the iteration
+	 */
+	public void beginIteration(long searchNodes) {
+		start = System.nanoTime();
+		startNodes = searchNodes;
+		currentCutoffs = 0L;
+		currentFirstCutoffs = 0L;
+		currentHits = 0L;
+		currentMisses = 0L;
+		currentStores = 0L;
+		currentCollisions = 0L;
+	}
+	
+	/**
+	 * Records a probe of the transposition table.
+	 * @param hit whether the probe found the position
+	 */
+	public void probe(boolean hit) {
+		if (hit) {
+			currentHits++;
+		} else {
+			currentMisses++;
+		}
+	}
+	
+	/**
+	 * Records a stored entry of the transposition table.
+	 * @param collision whether the entry replaced an entry of another position
+	 */
+	public void store(boolean collision) {
+		currentStores++;
+		
+		if (collision) {
+			currentCollisions++;
+		}
+	}
+	
+	/**
+	 * Records a cutoff of the search.
+	 * @param first whether the cutoff was caused by the first searched move
+	 */
+	public void cutoff(boolean first) {
+		currentCutoffs++;
+		
+		if (first) {
+			currentFirstCutoffs++;
+		}
+	}
+	
+	/**
+	 * Ends the current iteration of the search, which has completed the given depth, and records it.
+	 * @param depth the depth of the iteration
+	 * @param searchNodes the number of nodes, which the search has searched after the iteration
+	 */
+	public void endIteration(int depth, long searchNodes) {
+		if (iterations < MAX_ITERATIONS) {
+			depths[iterations] = depth;
+			nodes[iterations] = searchNodes - startNodes;
+			times[iterations] = System.nanoTime() - start;
+			cutoffs[iterations] = currentCutoffs;
+			firstCutoffs[iterations] = currentFirstCutoffs;
+			hits[iterations] = currentHits;
+			misses[iterations] = currentMisses;
+			stores[iterations] = currentStores;
+			collisions[iterations] = currentCollisions;
+			
+			iterations++;
+		}
+	}
+	
+	/**
+	 * Returns the number of recorded iterations.
+	 * @return the number of recorded iterations
+	 */
+	public int numberOfIterations() {
+		return iterations;
+	}
+	
+	/**
+	 * Returns the depth of the iteration with the given index.
+	 * @param iteration the index of the iteration
+	 * @return the depth of the iteration
+	 */
+	public int getDepth(int iteration) {
+		checkIteration(iteration);
+		
+		return depths[iteration];
+	}
+	
+	/**
+	 * Returns the number of nodes of the iteration with the given index.
+	 * @param iteration the index of the iteration
+	 * @return the number of nodes of the iteration
+	 */
+	public long getNodes(int iteration) {
+		checkIteration(iteration);
+		
+		return nodes[iteration];
+	}
+	
+	/**
+	 * Returns the time of the iteration with the given index in nanoseconds.
+	 * @param iteration the index of the iteration
+	 * @return the time of the iteration in nanoseconds
+	 */
+	public long getTime(int iteration) {
+		checkIteration(iteration);
+		
+		return times[iteration];
+	}
+	
+	/**
+	 * Returns the number of nodes per second of the iteration with the given index.
+	 * @param iteration the index of the iteration
+	 * @return the number of nodes per second of the iteration
+	 */
+	public long getNodesPerSecond(int iteration) {
+		checkIteration(iteration);
+		
+		return nodes[iteration] * 1000000000L / Math.max(1L, times[iteration]);
+	}
+	
+	/**
+	 * Returns the effective branching factor of the iteration with the given index, which is the number of its
+	 * nodes divided by the number of nodes of the previous iteration, or 0 for the first iteration.
+	 * @param iteration the index of the iteration
+	 * @return the effective branching factor of the iteration
+	 */
+	public double getBranchingFactor(int iteration) {
+		checkIteration(iteration);
+		
+		double result = 0.0;
+		
+		if (iteration > 0 && nodes[iteration - 1] > 0L) {
+			result = (double) nodes[iteration] / nodes[iteration - 1];
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the rate of the cutoffs of the iteration with the given index, which were caused by the first
+	 * searched move, or 0 if there was no cutoff.
+	 * @param iteration the index of the iteration
+	 * @return the rate of the cutoffs at the first move
+	 */
+	public double getFirstCutoffRate(int iteration) {
+		checkIteration(iteration);
+		
+		return rate(firstCutoffs[iteration], cutoffs[iteration]);
+	}
+	
+	/**
+	 * Returns the rate of the probes of the transposition table in the iteration with the given index,
+	 * which found the position, or 0 if there was no probe.
+	 * @param iteration the index of the iteration
+	 * @return the hit rate of the transposition table
+	 */
+	public double getHitRate(int iteration) {
+		checkIteration(iteration);
+		
+		return rate(hits[iteration], hits[iteration] + misses[iteration]);
+	}
+	
+	/**
+	 * Returns the rate of the entries, which were stored in the transposition table in the iteration with
+	 * the given index and replaced an entry of another position, or 0 if no entry was stored.
+	 * @param iteration the index of the iteration
+	 * @return the collision rate of the transposition table
+	 */
+	public double getCollisionRate(int iteration) {
+		checkIteration(iteration);
+		
+		return rate(collisions[iteration], stores[iteration]);
+	}
+	
+	/**
+	 * Returns a table with one line for each recorded iteration.
+	 * @return a table with one line for each recorded iteration
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%5s %12s %10s %12s %7s %8s %8s %8s", "depth", "nodes", "ms", "nodes/s",
+				"ebf", "first", "hits", "coll"));
+		
+		for (int i = 0; i < iterations; i++) {
+			result.append(System.lineSeparator());
+			result.append(String.format("%5d %12d %10.1f %12d %7.2f %7.1f%% %7.1f%% %7.1f%%", depths[i], nodes[i],
+					times[i] / 1000000.0, getNodesPerSecond(i), getBranchingFactor(i), 100.0 * getFirstCutoffRate(i),
+					100.0 * getHitRate(i), 100.0 * getCollisionRate(i)));
+		}
+		
+		return result.toString();
+	}
+	
+	/**
+	 * Checks whether an iteration with the given index was recorded.
+	 * @param iteration the index of the iteration
+	 */
+	private void checkIteration(int iteration) {
+		if (iteration < 0 || iteration > iterations - 1) {
+			throw new IllegalArgumentException();
+		}
+	}
+	
+	/**
+	 * Returns the given part divided by the given total or 0 if the total is 0.
+	 * @param part the part
+	 * @param total the total
+	 * @return the given part divided by the given total
+	 */
+	private static double rate(long part, long total) {
+		double result = 0.0;
+		
+		if (total > 0L) {
+			result = (double) part / total;
+		}
+		
+		return result;
+	}
+	
+}
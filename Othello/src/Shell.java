@@ -1,3 +1,7 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,6 +31,45 @@ public class Shell {
 	/** command to show the possible moves in the Othello game */
 	private static final String CMD_POSSIBLE_MOVES = "possibleMoves";
 
+	/** command to show the regions of the free fields in the Othello game */
+	private static final String CMD_REGIONS = "regions";
+
+	/** command to search the best move in the Othello game */
+	private static final String CMD_BEST_MOVE = "bestMove";
+
+	/** command to suggest a move, which is searched within a time budget or the time of a clock */
+	private static final String CMD_HINT = "hint";
+
+	/** command to search the best move with a Monte Carlo tree search */
+	private static final String CMD_MCTS = "mcts";
+
+	/** command to compare the parallel search with the search of one thread */
+	private static final String CMD_PARALLEL = "parallel";
+
+	/** command to count the leaves of the game tree in the Othello game */
+	private static final String CMD_PERFT = "perft";
+
+	/** command to solve the end of the Othello game */
+	private static final String CMD_SOLVE = "solve";
+
+	/** argument of the solve command to search the exact difference of the pieces */
+	private static final String ARG_EXACT = "exact";
+
+	/** argument of the solve command to search only a win, a draw or a loss */
+	private static final String ARG_WLD = "wld";
+
+	/** command to replay a game of the archive */
+	private static final String CMD_REPLAY = "replay";
+
+	/** command to collect or print the statistics of the search */
+	private static final String CMD_STATS = "stats";
+
+	/** argument of the stats command to collect the statistics of the following searches */
+	private static final String ARG_ON = "on";
+
+	/** argument of the stats command to stop collecting the statistics */
+	private static final String ARG_OFF = "off";
+
 	/** command to terminate the shell */
 	private static final String CMD_QUIT = "quit";
 	
@@ -39,6 +82,39 @@ public class Shell {
 	/** an Othello game instance */
 	private static Othello game;
 	
+	/** the size of the transposition table of the search in megabytes */
+	private static final int TABLE_SIZE = 16;
+	
+	/** the search for the best move */
+	private static Search search = new Search(new TranspositionTable(TABLE_SIZE));
+	
+	/** the Monte Carlo tree search, which keeps its tree between the moves, or {@code null} */
+	private static MonteCarloSearch mcts;
+	
+	/** command-line argument to play on a board, which is stored as bitsets */
+	private static final String ARG_BIT_BOARD = "bitboard";
+	
+	/** shows whether the games are played on a board, which is stored as bitsets */
+	private static boolean bitBoard = false;
+	
+	/** prefix of the command-line argument to use the opening book in the given file */
+	private static final String ARG_BOOK = "book=";
+	
+	/** the opening book, which is asked before each search for the best move, or {@code null} */
+	private static OpeningBook book;
+	
+	/** prefix of the command-line argument to record the finished games in the archive in the given file */
+	private static final String ARG_ARCHIVE = "archive=";
+	
+	/** the archive, which records the finished games, or {@code null} */
+	private static GameArchive archive;
+	
+	/** the moves of the current game */
+	private static List<Integer> history = new ArrayList<Integer>();
+	
+	/** shows whether the current game began on a standard board and can be recorded */
+	private static boolean recording = false;
+	
 	/**
 	 * Private constructor.
 	 */
@@ -55,9 +131,29 @@ public class Shell {
 
 	/**
 	 * main method - implements the shell
-	 * @param args command-line arguments - not used here!
+	 * @param args command-line arguments - "bitboard" plays on a board, which is stored as bitsets, 
+	 * "book=" followed by a file name uses the opening book in this file, "archive=" followed by a file name
+	 * records the finished games in the archive in this file
 	 */
 	public static void main(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (ARG_BIT_BOARD.equals(args[i])) {
+				bitBoard = true;
+			} else if (args[i].startsWith(ARG_BOOK)) {
+				try {
+					book = new OpeningBook(new File(args[i].substring(ARG_BOOK.length())));
+				} catch (IOException e) {
+					error("The opening book cannot be read: " + e.getMessage());
+				}
+			} else if (args[i].startsWith(ARG_ARCHIVE)) {
+				try {
+					archive = new GameArchive(new File(args[i].substring(ARG_ARCHIVE.length())));
+				} catch (IOException e) {
+					error("The archive cannot be read: " + e.getMessage());
+				}
+			}
+		}
+		
 		boolean quit = false;
 		while (!quit) {
 			final String[] tokens = Terminal.askString(PROMPT).trim().split("\\s+");
@@ -122,6 +218,96 @@ public class Shell {
 				} else {
 					error("No active game.");
 				}
+			} else if (CMD_REGIONS.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length == 1) {
+						regions();
+					} else {
+						error("No arguments required.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_BEST_MOVE.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length == 2) {
+						bestMove(tokens);
+					} else {
+						error("Wrong number of arguments. Must provide <depth> or <millis>ms as argument.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_HINT.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length >= 2 && tokens.length <= 3) {
+						hint(tokens);
+					} else {
+						error("Wrong number of arguments. Must provide <millis> [<increment>] as arguments.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_MCTS.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length >= 2 && tokens.length <= 3) {
+						mcts(tokens);
+					} else {
+						error("Wrong number of arguments. Must provide <millis> [<threads>] as arguments.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_PARALLEL.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length == 3) {
+						parallel(tokens);
+					} else {
+						error("Wrong number of arguments. Must provide <threads> and <depth> as arguments.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_PERFT.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length >= 2 && tokens.length <= 4) {
+						perft(tokens);
+					} else {
+						error("Wrong number of arguments. Must provide <depth> [<threads> [<megabytes>]] as arguments.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_SOLVE.equals(cmd)) {
+				if (game != null) {
+					if (tokens.length >= 1 && tokens.length <= 3) {
+						solve(tokens);
+					} else {
+						error("Wrong number of arguments. Must provide [exact|wld [<threshold>]] as arguments.");
+					}
+				} else {
+					error("No active game.");
+				}
+			} else if (CMD_REPLAY.equals(cmd)) {
+				if (archive != null) {
+					if (game == null) {
+						if (tokens.length >= 2 && tokens.length <= 3) {
+							replay(tokens);
+						} else {
+							error("Wrong number of arguments. Must provide <game> [<plies>] as arguments.");
+						}
+					} else {
+						error("There is already an active game.");
+					}
+				} else {
+					error("No archive.");
+				}
+			} else if (CMD_STATS.equals(cmd)) {
+				if (tokens.length >= 1 && tokens.length <= 2) {
+					stats(tokens);
+				} else {
+					error("Wrong number of arguments. Must provide [on|off] as argument.");
+				}
 			} else if (CMD_QUIT.equals(cmd)) {
 				if (tokens.length == 1) {
 					quit = true;
@@ -158,31 +344,34 @@ public class Shell {
 		if (width >= 2 && width <= 26 && width % 2 == 0) {
 			if (height >= 2 && height <= 98 && height % 2 == 0) {
 				if (tokens.length == 3) {
-					game = new Othello(width, height);
+					game = new Othello(createBoard(width, height));
 					game.setStandardBoard(width, height);
 					possibleHoleArea = true;
+					history.clear();
+					recording = true;
 					validMoves();
 				} else if (tokens.length == 4) {
 					final String[] positions = tokens[3].split(",");
 						
 					if (validBoard(width, height, positions)) {
-						game = new Othello(width, height);
+						game = new Othello(createBoard(width, height));
 							
 						for (int i = 0; i < positions.length; i++) {
 							for (int j = 0; j < positions[i].length(); j++) {
 								if (positions[i].charAt(j) == '#') {
-									game.getBoard().getBoard()[i][j] = Piece.HOLE;
+									game.getBoard().setPosition(j, i, Piece.HOLE);
 								} else if (positions[i].charAt(j) == '-') {
-									game.getBoard().getBoard()[i][j] = Piece.FREE;
+									game.getBoard().setPosition(j, i, Piece.FREE);
 								} else if (positions[i].charAt(j) == 'B') {
-									game.getBoard().getBoard()[i][j] = Piece.BLACK;
+									game.getBoard().setPosition(j, i, Piece.BLACK);
 								} else if (positions[i].charAt(j) == 'W') {
-									game.getBoard().getBoard()[i][j] = Piece.WHITE;
+									game.getBoard().setPosition(j, i, Piece.WHITE);
 								}
 							}
 						}
 							
 						possibleHoleArea = true;
+						recording = false;
 						validMoves();
 					} else {
 						error("The board is not valid.");
@@ -200,6 +389,25 @@ public class Shell {
 		}
 	}
 
+	/**
+	 * Creates a new empty board with the given width and height. The board is stored as bitsets 
+	 * if the shell was started with the corresponding command-line argument.
+	 * @param width width of the board
+	 * @param height height of the board
+	 * @return a new empty board with the given width and height
+	 */
+	private static Board createBoard(int width, int height) {
+		Board board = null;
+		
+		if (bitBoard) {
+			board = new BitBoard(width, height);
+		} else {
+			board = new Board(width, height);
+		}
+		
+		return board;
+	}
+
 	/**
 	 * Adds a hole area in the Othello game if it is possible.
 	 * @param tokens command and parameters
@@ -259,6 +467,7 @@ public class Shell {
 														game.getOtherPlayer().getPiece())) {
 					game.setPiece(width, height, game.getCurrentPlayer().getPiece(), game.getOtherPlayer().getPiece());
 					possibleHoleArea = false;
+					history.add((height * game.getBoard().getWidth()) + width);
 					validMoves();
 				} else {
 					System.out.println("Move not possible.");
@@ -313,6 +522,389 @@ public class Shell {
 		System.out.println("Possible moves: " + buffer.substring(0, buffer.length() - 1));
 	}
 	
+	/**
+	 * Shows the number of the regions of the free fields and of the regions with an odd number of free fields 
+	 * in the Othello game, followed by the free fields of each region.
+	 */
+	private static void regions() {
+		Regions regions = game.getRegions();
+		int size = game.getBoard().getWidth() * game.getBoard().getHeight();
+		int[] positions = new int[size];
+		println("Regions: " + regions.numberOfRegions() + ", odd regions: " + regions.numberOfOddRegions());
+		
+		for (int i = 0; i < size; i++) {
+			if (regions.isFree(i) && regions.getRegion(i) == i) {
+				int count = regions.getPositions(i, positions);
+				Arrays.sort(positions, 0, count);
+				StringBuffer buffer = new StringBuffer();
+				
+				for (int j = 0; j < count; j++) {
+					buffer.append(positionToString(positions[j]) + ",");
+				}
+				
+				println("Region: " + buffer.substring(0, buffer.length() - 1));
+			}
+		}
+	}
+	
+	/**
+	 * Searches the best move for the current player in the Othello game. The search has either the given 
+	 * depth or the given time in milliseconds. If the position is in the opening book, the most played 
+	 * move of the book is printed instead.
+	 * @param tokens command and parameters
+	 */
+	private static void bestMove(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length == 2;
+		
+		int record = -1;
+		
+		if (book != null) {
+			record = book.find(game.getBoard(), game.getCurrentPlayer().getPiece());
+		}
+		
+		if (!tokens[1].matches("[1-9][0-9]?") && !tokens[1].matches("[1-9][0-9]{0,8}ms")) {
+			error("Must provide <depth> or <millis>ms as argument.");
+		} else if (record >= 0) {
+			System.out.println("Book move: " + moveToString(book.getMove(record)) + " (" + book.getGames(record) 
+											+ " games, " + book.getWins(record) + " wins, " + book.getDraws(record) + " draws)");
+		} else if (tokens[1].matches("[1-9][0-9]?")) {
+			int depth = Integer.parseInt(tokens[1]);
+			
+			if (depth <= 64) {
+				int move = search.bestMove(game.getBoard(), game.getCurrentPlayer().getPiece(), depth);
+				printBestMove(move);
+			} else {
+				error("The depth must be an integer between 1 and 64.");
+			}
+		} else {
+			long millis = Long.parseLong(tokens[1].substring(0, tokens[1].length() - 2));
+			int move = search.bestMoveInTime(game.getBoard(), game.getCurrentPlayer().getPiece(), millis);
+			printBestMove(move);
+		}
+	}
+	
+	/**
+	 * Suggests a move for the current player in the Othello game. With one argument the move is searched within
+	 * the given time in milliseconds. With two arguments the given time is the remaining time of the clock of the
+	 * player, who receives the given increment after each move, and the time of the search is allocated by a
+	 * {@link TimeManager}. The suggested move is printed together with the depth, the score and the used time.
+	 * @param tokens command and parameters
+	 */
+	private static void hint(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length >= 2;
+		assert tokens.length <= 3;
+		
+		if (!tokens[1].matches("[1-9][0-9]{0,8}") || (tokens.length == 3 && !tokens[2].matches("[0-9]{1,9}"))) {
+			error("Must provide integer arguments <millis> [<increment>].");
+		} else {
+			long budget = Long.parseLong(tokens[1]);
+			
+			if (tokens.length == 3) {
+				budget = new TimeManager(budget, Long.parseLong(tokens[2])).allocate(game.getBoard());
+			}
+			
+			long start = System.nanoTime();
+			int move = search.bestMoveInTime(game.getBoard(), game.getCurrentPlayer().getPiece(), budget);
+			long time = (System.nanoTime() - start) / 1000000L;
+			System.out.println("Hint: " + moveToString(move) + " (depth " + search.getDepth() + ", score " 
+											+ search.getScore() + ", " + time + " ms of " + budget + " ms)");
+		}
+	}
+	
+	/**
+	 * Searches the best move for the current player in the Othello game with a Monte Carlo tree search within
+	 * the given time in milliseconds and prints the move, the number of playouts, the playouts per second, the
+	 * win rate of the move and the size of the tree. Optionally the number of threads can be given. The tree is
+	 * kept for the next search, as long as the number of threads is the same.
+	 * @param tokens command and parameters
+	 */
+	private static void mcts(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length >= 2;
+		assert tokens.length <= 3;
+		
+		int threads = Runtime.getRuntime().availableProcessors();
+		
+		if (!tokens[1].matches("[1-9][0-9]{0,8}") || (tokens.length == 3 && !tokens[2].matches("[1-9][0-9]{0,2}"))) {
+			error("Must provide integer arguments <millis> [<threads>].");
+		} else {
+			if (tokens.length == 3) {
+				threads = Integer.parseInt(tokens[2]);
+			}
+			
+			if (mcts == null || mcts.getThreads() != threads) {
+				if (mcts != null) {
+					mcts.shutdown();
+				}
+				
+				mcts = new MonteCarloSearch(threads);
+			}
+			
+			int move = mcts.bestMoveInTime(game.getBoard(), game.getCurrentPlayer().getPiece(), 
+											Long.parseLong(tokens[1]));
+			System.out.println("MCTS move: " + moveToString(move) + " (" + mcts.getPlayouts() + " playouts, " 
+											+ mcts.getPlayoutsPerSecond() + " playouts/s, win rate " 
+											+ String.format("%.1f", 100.0 * mcts.getWinRate()) + "%, " + mcts.getTreeSize() 
+											+ " nodes, " + mcts.getReusedNodes() + " reused)");
+		}
+	}
+	
+	/**
+	 * Searches the best move for the current player in the Othello game with the given depth, first with 
+	 * one thread and then with the given number of threads, and prints the speedup of the parallel search.
+	 * @param tokens command and parameters
+	 */
+	private static void parallel(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length == 3;
+		
+		if (tokens[1].matches("[1-9][0-9]{0,2}") && tokens[2].matches("[1-9][0-9]?")) {
+			int threads = Integer.parseInt(tokens[1]);
+			int depth = Integer.parseInt(tokens[2]);
+			
+			if (depth <= 63) {
+				Piece current = game.getCurrentPlayer().getPiece();
+				TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+				Search single = new Search(table);
+				long start = System.nanoTime();
+				int move = single.bestMove(game.getBoard(), current, depth);
+				long singleTime = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+				System.out.println("1 thread: " + moveToString(move) + " (score " + single.getScore() + ", " 
+												+ single.getNodes() + " nodes, " + singleTime + " ms)");
+				
+				table.clear();
+				ParallelSearch parallel = new ParallelSearch(threads, table);
+				start = System.nanoTime();
+				move = parallel.bestMove(game.getBoard(), current, depth);
+				long parallelTime = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+				parallel.shutdown();
+				System.out.println(threads + " threads: " + moveToString(move) + " (score " + parallel.getScore() 
+												+ ", " + parallel.getNodes() + " nodes, " + parallelTime + " ms)");
+				System.out.println("Speedup: " + String.format("%.2f", (double) singleTime / parallelTime));
+			} else {
+				error("The depth must be an integer between 1 and 63.");
+			}
+		} else {
+			error("Must provide integer arguments <threads>, <depth>.");
+		}
+	}
+	
+	/**
+	 * Counts the leaves of the game tree with the given depth, which begins with the current position of the 
+	 * Othello game, and prints the count and the number of leaves per second. Optionally the number of threads 
+	 * and the size of the hash table in megabytes can be given.
+	 * @param tokens command and parameters
+	 */
+	private static void perft(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length >= 2;
+		assert tokens.length <= 4;
+		
+		int threads = Runtime.getRuntime().availableProcessors();
+		int megabytes = 0;
+		boolean valid = tokens[1].matches("[0-9]{1,2}");
+		
+		if (tokens.length >= 3) {
+			valid = valid && tokens[2].matches("[1-9][0-9]{0,2}");
+		}
+		
+		if (tokens.length == 4) {
+			valid = valid && tokens[3].matches("[0-9]{1,4}");
+		}
+		
+		if (valid) {
+			int depth = Integer.parseInt(tokens[1]);
+			
+			if (tokens.length >= 3) {
+				threads = Integer.parseInt(tokens[2]);
+			}
+			
+			if (tokens.length == 4) {
+				megabytes = Integer.parseInt(tokens[3]);
+			}
+			
+			if (megabytes <= 8192) {
+				Perft perft = new Perft(threads, megabytes);
+				long start = System.nanoTime();
+				long leaves = perft.perft(game.getBoard(), game.getCurrentPlayer().getPiece(), depth);
+				long time = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+				perft.shutdown();
+				System.out.println("Perft " + depth + ": " + leaves + " leaves (" + time + " ms, " 
+												+ (leaves * 1000L / time) + " leaves/s)");
+			} else {
+				error("The hash table can have at most 8192 megabytes.");
+			}
+		} else {
+			error("Must provide integer arguments <depth> [<threads> [<megabytes>]].");
+		}
+	}
+	
+	/**
+	 * Solves the end of the Othello game for the current player and prints the best move, the score, the number 
+	 * of nodes and the number of nodes per second. By default the exact difference of the pieces is searched. 
+	 * Optionally only a win, a draw or a loss is searched and the maximal number of free fields can be given.
+	 * @param tokens command and parameters
+	 */
+	private static void solve(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length >= 1;
+		assert tokens.length <= 3;
+		
+		boolean exact = true;
+		int threshold = EndgameSolver.DEFAULT_THRESHOLD;
+		boolean valid = true;
+		
+		if (tokens.length >= 2) {
+			exact = ARG_EXACT.equals(tokens[1]);
+			valid = exact || ARG_WLD.equals(tokens[1]);
+		}
+		
+		if (tokens.length == 3) {
+			valid = valid && tokens[2].matches("[1-9][0-9]?") && Integer.parseInt(tokens[2]) <= 64;
+		}
+		
+		if (valid) {
+			if (tokens.length == 3) {
+				threshold = Integer.parseInt(tokens[2]);
+			}
+			
+			EndgameSolver solver = new EndgameSolver(threshold);
+			
+			if (solver.canSolve(game.getBoard())) {
+				long start = System.nanoTime();
+				int move = game.solve(solver, exact);
+				long time = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+				String score = String.valueOf(solver.getScore());
+				
+				if (!exact && solver.getScore() == EndgameSolver.WIN) {
+					score = "win";
+				} else if (!exact && solver.getScore() == EndgameSolver.LOSS) {
+					score = "loss";
+				} else if (!exact) {
+					score = "draw";
+				}
+				
+				System.out.println("Best move: " + moveToString(move) + " (score " + score + ", " + solver.getNodes() 
+												+ " nodes, " + time + " ms, " + (solver.getNodes() * 1000L / time) + " nodes/s)");
+			} else {
+				error("There are more than " + threshold + " free fields.");
+			}
+		} else {
+			error("Must provide [exact|wld [<threshold>]] with a threshold between 1 and 64.");
+		}
+	}
+	
+	/**
+	 * Replays a game of the archive up to the given number of moves, so that it can be continued. 
+	 * By default the whole game is replayed. A continued game is recorded as a new game.
+	 * @param tokens command and parameters
+	 */
+	private static void replay(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length >= 2;
+		assert tokens.length <= 3;
+		
+		if (tokens[1].matches("[0-9]+") && tokens[1].length() <= 9 && Integer.parseInt(tokens[1]) < archive.size()) {
+			try {
+				GameRecord record = archive.get(Integer.parseInt(tokens[1]));
+				int plies = record.size();
+				
+				if (tokens.length == 3) {
+					plies = -1;
+					
+					if (tokens[2].matches("[0-9]+") && tokens[2].length() <= 9) {
+						plies = Integer.parseInt(tokens[2]);
+					}
+				}
+				
+				if (plies >= 0 && plies <= record.size()) {
+					game = record.replay(createBoard(record.getWidth(), record.getHeight()), plies);
+					int[] moves = record.getMoves();
+					history.clear();
+					
+					for (int i = 0; i < plies; i++) {
+						history.add(moves[i]);
+					}
+					
+					possibleHoleArea = false;
+					recording = plies < record.size();
+					validMoves();
+				} else {
+					error("The number of moves must be an integer between 0 and " + record.size() + ".");
+				}
+			} catch (IOException e) {
+				error("The archive cannot be read: " + e.getMessage());
+			}
+		} else {
+			error("The game must be an integer between 0 and " + (archive.size() - 1) + ".");
+		}
+	}
+	
+	/**
+	 * Switches the statistics of the search on or off or prints the statistics of the last search
+	 * with one line for each completed iteration.
+	 * @param tokens command and parameters
+	 */
+	private static void stats(String[] tokens) {
+		assert tokens != null;
+		assert tokens.length >= 1;
+		assert tokens.length <= 2;
+		
+		if (tokens.length == 2 && ARG_ON.equals(tokens[1])) {
+			if (search.getStatistics() == null) {
+				search.setStatistics(new SearchStatistics());
+			}
+		} else if (tokens.length == 2 && ARG_OFF.equals(tokens[1])) {
+			search.setStatistics(null);
+		} else if (tokens.length == 2) {
+			error("Must provide [on|off] as argument.");
+		} else if (search.getStatistics() == null) {
+			error("The statistics are off.");
+		} else if (search.getStatistics().numberOfIterations() == 0) {
+			error("No completed iteration.");
+		} else {
+			System.out.println(search.getStatistics());
+		}
+	}
+	
+	/**
+	 * Prints the given best move together with the depth and the score of the search.
+	 * @param move the best move in the form {@code height * width of the board + width}
+	 */
+	private static void printBestMove(int move) {
+		System.out.println("Best move: " + moveToString(move) + " (depth " + search.getDepth() + ", score " 
+												+ search.getScore() + ", " + search.getNodes() + " nodes)");
+	}
+	
+	/**
+	 * Returns the string representation of the given move, for example "C4" or "pass".
+	 * @param move the move in the form {@code height * width of the board + width} or {@link Search#PASS}
+	 * @return the string representation of the given move
+	 */
+	private static String moveToString(int move) {
+		String result = "pass";
+		
+		if (move != Search.PASS) {
+			result = positionToString(move);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the string representation of the given position, for example "C4".
+	 * @param position the position in the form {@code height * width of the board + width}
+	 * @return the string representation of the given position
+	 */
+	private static String positionToString(int position) {
+		int width = (position % game.getBoard().getWidth()) + ASCII_VALUE;
+		int height = (position / game.getBoard().getWidth()) + 1;
+		
+		return (char) width + "" + height;
+	}
+	
 	/**
 	 * Returns {@code true} if the board with the given parameters is valid, {@code false} otherwise.
 	 * @param width the given width of the Othello game
@@ -351,10 +943,34 @@ public class Shell {
 	private static void validMoves() {
 		if (!game.possibleMove(game.getCurrentPlayer().getPiece(), game.getOtherPlayer().getPiece()) 
 						&& !game.possibleMove(game.getOtherPlayer().getPiece(), game.getCurrentPlayer().getPiece())) {
+			record();
 			endGame();
 		} else if (!game.possibleMove(game.getCurrentPlayer().getPiece(), game.getOtherPlayer().getPiece())) {
 			System.out.println(game.getCurrentPlayer().toString() + " passes.");
 			game.switchPlayers();
+			history.add(Search.PASS);
+		}
+	}
+	
+	/**
+	 * Appends the finished Othello game to the archive if the shell was started with an archive 
+	 * and the game began on a standard board.
+	 */
+	private static void record() {
+		if (archive != null && recording) {
+			int[] moves = new int[history.size()];
+			
+			for (int i = 0; i < moves.length; i++) {
+				moves[i] = history.get(i);
+			}
+			
+			try {
+				archive.append(GameRecord.of(game.getBoard(), moves));
+				archive.flush();
+				println("Game recorded as number " + (archive.size() - 1) + ".");
+			} catch (IOException e) {
+				error("The game cannot be recorded: " + e.getMessage());
+			}
 		}
 	}
 	
@@ -363,16 +979,15 @@ public class Shell {
 	 * If the both players have the same amount of pieces, the game ends in a draw.
 	 */
 	private static void endGame() {
-		if (game.numberOfPieces(game.getCurrentPlayer().getPiece()) 
-															> game.numberOfPieces(game.getOtherPlayer().getPiece())) {
+		int current = game.numberOfPieces(game.getCurrentPlayer().getPiece());
+		int other = game.numberOfPieces(game.getOtherPlayer().getPiece());
+		
+		if (current > other) {
 			System.out.println("Game Over! " + game.getCurrentPlayer().toString() + " has won (" 
-													+ game.numberOfPieces(game.getCurrentPlayer().getPiece()) + ":" 
-													+ game.numberOfPieces(game.getOtherPlayer().getPiece()) + ")!");
-		} else if (game.numberOfPieces(game.getCurrentPlayer().getPiece()) 
-															< game.numberOfPieces(game.getOtherPlayer().getPiece())) {
+													+ current + ":" + other + ")!");
+		} else if (current < other) {
 			System.out.println("Game Over! " + game.getOtherPlayer().toString() + " has won (" 
-													+ game.numberOfPieces(game.getOtherPlayer().getPiece()) + ":" 
-													+ game.numberOfPieces(game.getCurrentPlayer().getPiece()) + ")!");
+													+ other + ":" + current + ")!");
 		} else {
 			System.out.println("Game has ended in a draw.");
 		}
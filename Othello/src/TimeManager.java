@@ -0,0 +1,89 @@
+/**
+ * This class manages the clock of a player in the Othello game, who has a total time for the whole game and
+ * receives an increment after each move. The time of a move is the remaining time divided by the estimated
+ * number of the remaining moves of the player plus most of the increment. The remaining moves are estimated
+ * from the free fields of the board, because each move fills one free field, but at least a few moves are
+ * reserved, so that the clock does not run out in a long game with many passes. A small reserve of the clock
+ * is never allocated, because the search and the move take some time after the deadline.
+ * @author Delyan Nikolov
+ */
+public class TimeManager {
+
+	/** the smallest number of moves, for which time is reserved */
+	private static final int MIN_MOVES = 8;
+	
+	/** the part of the increment in percent, which is allocated to the current move */
+	private static final int INCREMENT_PERCENT = 80;
+	
+	/** the time in milliseconds, which is never allocated */
+	private static final long RESERVE = 20L;
+	
+	/** the remaining time in milliseconds */
+	private long remaining;
+	
+	/** the increment in milliseconds, which is added after each move */
+	private long increment;
+	
+	/**
+	 * Constructs a new clock with the given total time and increment.
+	 * @param total the total time in milliseconds
+	 * @param increment the increment in milliseconds, which is added after each move
+	 */
+	public TimeManager(long total, long increment) {
+		if (total < 1) {
+			throw new IllegalArgumentException();
+		} else if (increment < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.remaining = total;
+		this.increment = increment;
+	}
+	
+	/**
+	 * Returns the remaining time in milliseconds.
+	 * @return the remaining time in milliseconds
+	 */
+	public long getRemaining() {
+		return remaining;
+	}
+	
+	/**
+	 * Returns the increment in milliseconds, which is added after each move.
+	 * @return the increment in milliseconds
+	 */
+	public long getIncrement() {
+		return increment;
+	}
+	
+	/**
+	 * Returns the time in milliseconds, which is allocated to the next move on the given board. The time is at
+	 * least 1 millisecond and leaves the reserve of the clock unless the remaining time is smaller.
+	 * @param board the board, on which the player moves
+	 * @return the time in milliseconds, which is allocated to the next move
+	 */
+	public long allocate(Board board) {
+		if (board == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		long moves = Math.max(MIN_MOVES, (board.numberOfFreeFields() + 1) / 2);
+		long result = (remaining / moves) + (increment * INCREMENT_PERCENT / 100);
+		result = Math.min(result, remaining - RESERVE);
+		
+		return Math.max(1L, result);
+	}
+	
+	/**
+	 * Subtracts the given time of a move from the clock and adds the increment.
+	 * @param millis the time of the move in milliseconds
+	 */
+	public void used(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		remaining = remaining - millis + increment;
+	}
+	
+}
@@ -0,0 +1,571 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class plays a tournament between two engines in the Othello game without the shell. An engine is given
+ * as {@code <depth>} for a search with a fixed depth, as {@code <millis>ms} for a search with a fixed time per
+ * move, as {@code <millis>ms/<threads>t} for a {@link ParallelSearch} with the given number of threads and a
+ * fixed time per move, as {@code mcts<millis>ms} for a {@link MonteCarloSearch} with one thread and a fixed
+ * time per move or as {@code random} for random moves. The games are played in pairs from the same opening, once with
+ * each engine as black, so that an unbalanced opening favours no engine. Each opening begins with a standard
+ * board, on which single holes are added with a given density, followed by a few random moves. The openings
+ * are generated from a fixed seed, so that a tournament can be repeated.
+ * <p>
+ * The games are played concurrently by a pool of threads. Each game has its own board and its own searches,
+ * so that the games share no mutable state except the results. An engine with several threads should be played
+ * with one thread for the games, so that its threads do not compete with the other games. After each game the
+ * Elo difference and a sequential probability ratio test (SPRT) are updated. The test compares the hypothesis,
+ * that the first engine is {@code elo0} stronger than the second engine, with the hypothesis, that it is
+ * {@code elo1} stronger, and stops the tournament as soon as one of them is accepted.
+ * @author Delyan Nikolov
+ */
+public class Tournament {
+
+	/** the result of the test, if the first hypothesis is accepted */
+	public static final int H0 = -1;
+	
+	/** the result of the test, if no hypothesis is accepted yet */
+	public static final int UNDECIDED = 0;
+	
+	/** the result of the test, if the second hypothesis is accepted */
+	public static final int H1 = 1;
+	
+	/** the argument of an engine, which makes random moves */
+	public static final String RANDOM = "random";
+	
+	/** the prefix of the argument of an engine, which runs a Monte Carlo tree search */
+	public static final String MCTS = "mcts";
+	
+	/** the separator of the time and the number of threads of an engine, which runs a parallel search */
+	public static final String THREADS = "/";
+	
+	/** the probability to accept the second hypothesis, if the first one is true */
+	private static final double ALPHA = 0.05;
+	
+	/** the probability to accept the first hypothesis, if the second one is true */
+	private static final double BETA = 0.05;
+	
+	/** the quantile of the normal distribution for the error bars of 95 percent */
+	private static final double QUANTILE = 1.959964;
+	
+	/** the number of random moves of each opening */
+	private static final int OPENING_MOVES = 4;
+	
+	/** the size of the transposition table of each search in megabytes */
+	private static final int TABLE_SIZE = 1;
+	
+	/** the number of nodes of the tree of each Monte Carlo tree search */
+	private static final int MCTS_CAPACITY = 1 << 17;
+	
+	/** the seed of the openings */
+	private static final long SEED = 1992L;
+	
+	/** the Elo difference of the first hypothesis of the test, if none is given */
+	private static final double DEFAULT_ELO0 = 0.0;
+	
+	/** the Elo difference of the second hypothesis of the test, if none is given */
+	private static final double DEFAULT_ELO1 = 10.0;
+	
+	/** the pattern of an Elo difference of a hypothesis */
+	private static final String ELO = "-?[0-9]{1,4}(\\.[0-9]+)?";
+	
+	/** width of the boards */
+	private int width;
+	
+	/** height of the boards */
+	private int height;
+	
+	/** the density of the holes */
+	private double density;
+	
+	/** the number of threads */
+	private int threads;
+	
+	/** the depth of the search of each engine or 0 */
+	private int[] depths = new int[2];
+	
+	/** the time of the search of each engine in milliseconds or 0 */
+	private long[] millis = new long[2];
+	
+	/** shows whether each engine runs a Monte Carlo tree search */
+	private boolean[] mcts = new boolean[2];
+	
+	/** the number of threads of the parallel search of each engine or 0 */
+	private int[] parallel = new int[2];
+	
+	/** the Elo difference of the first hypothesis of the test */
+	private double elo0;
+	
+	/** the Elo difference of the second hypothesis of the test */
+	private double elo1;
+	
+	/** the number of games, which the first engine has won */
+	private int wins;
+	
+	/** the number of drawn games */
+	private int draws;
+	
+	/** the number of games, which the first engine has lost */
+	private int losses;
+	
+	/** the result of the test */
+	private volatile int result;
+	
+	/**
+	 * Constructs a new tournament on boards with the given width, height and density of the holes,
+	 * whose games are played by the given number of threads.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 * @param density the density of the holes
+	 * @param threads the number of threads
+	 */
+	public Tournament(int width, int height, double density, int threads) {
+		if (width < 2 || width > 26 || width % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (height < 2 || height > 98 || height % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (density < 0.0 || density >= 1.0) {
+			throw new IllegalArgumentException();
+		} else if (threads < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.width = width;
+		this.height = height;
+		this.density = density;
+		this.threads = threads;
+	}
+	
+	/**
+	 * main method - plays a tournament and prints the results
+	 * @param args command-line arguments - the first engine, the second engine, the number of pairs of games
+	 * and optionally the width and the height of the boards, the density of the holes, the number of threads
+	 * and the Elo differences of the two hypotheses of the test
+	 */
+	public static void main(String[] args) {
+		boolean valid = args.length >= 3 && args.length <= 9 && args.length != 4 && args.length != 8
+				&& isEngine(args[0]) && isEngine(args[1]) && args[2].matches("[1-9][0-9]{0,8}");
+		
+		if (valid && args.length == 9) {
+			valid = args[7].matches(ELO) && args[8].matches(ELO)
+					&& Double.parseDouble(args[7]) < Double.parseDouble(args[8]);
+		}
+		
+		if (!valid) {
+			System.out.println("Usage: Tournament <engine> <engine> <pairs> "
+					+ "[<width> <height> [<holes> [<threads> [<elo0> <elo1>]]]]");
+			System.out.println("An engine is <depth>, <millis>ms, <millis>ms" + THREADS + "<threads>t, " + MCTS
+					+ "<millis>ms or " + RANDOM + ".");
+			System.out.println("The test compares the hypotheses elo0 and elo1 with elo0 < elo1, by default "
+					+ DEFAULT_ELO0 + " and " + DEFAULT_ELO1 + ".");
+		} else {
+			int width = 8;
+			int height = 8;
+			double density = 0.0;
+			int threads = Runtime.getRuntime().availableProcessors();
+			double elo0 = DEFAULT_ELO0;
+			double elo1 = DEFAULT_ELO1;
+			
+			if (args.length >= 5) {
+				width = Integer.parseInt(args[3]);
+				height = Integer.parseInt(args[4]);
+			}
+			
+			if (args.length >= 6) {
+				density = Double.parseDouble(args[5]);
+			}
+			
+			if (args.length >= 7) {
+				threads = Integer.parseInt(args[6]);
+			}
+			
+			if (args.length == 9) {
+				elo0 = Double.parseDouble(args[7]);
+				elo1 = Double.parseDouble(args[8]);
+			}
+			
+			Tournament tournament = new Tournament(width, height, density, threads);
+			long start = System.nanoTime();
+			tournament.play(args[0], args[1], Integer.parseInt(args[2]), elo0, elo1);
+			long time = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+			int games = tournament.getGames();
+			String test = "undecided";
+			
+			if (tournament.getResult() == H0) {
+				test = "H0 accepted";
+			} else if (tournament.getResult() == H1) {
+				test = "H1 accepted";
+			}
+			
+			System.out.println(args[0] + " vs " + args[1] + ": " + tournament.getWins() + " wins, "
+					+ tournament.getDraws() + " draws, " + tournament.getLosses() + " losses in " + games + " games ("
+					+ time + " ms, " + String.format("%.1f", games * 1000.0 / time) + " games/s)");
+			System.out.println("Elo: " + String.format("%.1f +- %.1f", tournament.getElo(), tournament.getEloError()));
+			System.out.println("SPRT " + String.format("[%.1f, %.1f]", elo0, elo1) + ": LLR "
+					+ String.format("%.2f", tournament.getLogLikelihoodRatio())
+					+ " [" + String.format("%.2f", Math.log(BETA / (1 - ALPHA))) + ", "
+					+ String.format("%.2f", Math.log((1 - BETA) / ALPHA)) + "], " + test);
+		}
+	}
+	
+	/**
+	 * Plays the given number of pairs of games between the two given engines. The tournament stops early,
+	 * when the sequential probability ratio test with the two given Elo differences accepts a hypothesis.
+	 * @param first the first engine
+	 * @param second the second engine
+	 * @param pairs the number of pairs of games
+	 * @param elo0 the Elo difference of the first hypothesis
+	 * @param elo1 the Elo difference of the second hypothesis
+	 */
+	public void play(String first, String second, int pairs, double elo0, double elo1) {
+		if (!isEngine(first) || !isEngine(second)) {
+			throw new IllegalArgumentException();
+		} else if (pairs < 1) {
+			throw new IllegalArgumentException();
+		} else if (elo0 >= elo1) {
+			throw new IllegalArgumentException();
+		}
+		
+		setEngine(0, first);
+		setEngine(1, second);
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		wins = 0;
+		draws = 0;
+		losses = 0;
+		result = UNDECIDED;
+		
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> games = new ArrayList<Future<Integer>>();
+		
+		for (int i = 0; i < 2 * pairs; i++) {
+			final int game = i;
+			games.add(pool.submit(new Callable<Integer>() {
+				
+				@Override
+				public Integer call() {
+					if (result == UNDECIDED) {
+						record(playGame(game / 2, game % 2 == 1));
+					}
+					
+					return result;
+				}
+			
+			}));
+		}
+		
+		try {
+			for (Future<Integer> future : games) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Returns the number of played games.
+	 * @return the number of played games
+	 */
+	public synchronized int getGames() {
+		return wins + draws + losses;
+	}
+	
+	/**
+	 * Returns the number of games, which the first engine has won.
+	 * @return the number of games, which the first engine has won
+	 */
+	public synchronized int getWins() {
+		return wins;
+	}
+	
+	/**
+	 * Returns the number of drawn games.
+	 * @return the number of drawn games
+	 */
+	public synchronized int getDraws() {
+		return draws;
+	}
+	
+	/**
+	 * Returns the number of games, which the first engine has lost.
+	 * @return the number of games, which the first engine has lost
+	 */
+	public synchronized int getLosses() {
+		return losses;
+	}
+	
+	/**
+	 * Returns the result of the sequential probability ratio test: {@link #H0}, {@link #H1} or {@link #UNDECIDED}.
+	 * @return the result of the sequential probability ratio test
+	 */
+	public int getResult() {
+		return result;
+	}
+	
+	/**
+	 * Returns the Elo difference of the first engine to the second engine, which corresponds to the score
+	 * of the first engine.
+	 * @return the Elo difference of the first engine to the second engine
+	 */
+	public synchronized double getElo() {
+		return elo(score());
+	}
+	
+	/**
+	 * Returns the half width of the 95 percent confidence interval of the Elo difference.
+	 * @return the half width of the confidence interval of the Elo difference
+	 */
+	public synchronized double getEloError() {
+		int games = wins + draws + losses;
+		double deviation = Math.sqrt(variance() / Math.max(1, games));
+		double score = score();
+		
+		return (elo(score + (QUANTILE * deviation)) - elo(score - (QUANTILE * deviation))) / 2;
+	}
+	
+	/**
+	 * Returns the logarithm of the likelihood ratio of the second hypothesis to the first hypothesis.
+	 * The ratio is approximated by the normal distribution of the mean score of the games.
+	 * @return the logarithm of the likelihood ratio
+	 */
+	public synchronized double getLogLikelihoodRatio() {
+		int games = wins + draws + losses;
+		double variance = variance();
+		double result = 0.0;
+		
+		if (variance > 0.0) {
+			double score0 = expectedScore(elo0);
+			double score1 = expectedScore(elo1);
+			result = games * (score1 - score0) * ((2 * score()) - score0 - score1) / (2 * variance);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Records the result of a game and updates the result of the test.
+	 * @param difference the difference of the pieces at the end of the game from the view of the first engine
+	 */
+	private synchronized void record(int difference) {
+		if (difference > 0) {
+			wins++;
+		} else if (difference < 0) {
+			losses++;
+		} else {
+			draws++;
+		}
+		
+		double ratio = getLogLikelihoodRatio();
+		
+		if (result == UNDECIDED && ratio >= Math.log((1 - BETA) / ALPHA)) {
+			result = H1;
+		} else if (result == UNDECIDED && ratio <= Math.log(BETA / (1 - ALPHA))) {
+			result = H0;
+		}
+	}
+	
+	/**
+	 * Plays a game from the opening with the given index and returns the difference of the pieces at the end
+	 * of the game from the view of the first engine.
+	 * @param opening the index of the opening
+	 * @param swapped whether the first engine plays white
+	 * @return the difference of the pieces at the end of the game from the view of the first engine
+	 */
+	private int playGame(int opening, boolean swapped) {
+		Random random = new Random(SEED + opening);
+		Othello game = new Othello(new Board(width, height));
+		game.setStandardBoard(width, height);
+		
+		for (int h = 0; h < height; h++) {
+			for (int w = 0; w < width; w++) {
+				if (random.nextDouble() < density && game.possibleHoleArea(w, h, w, h)) {
+					game.addHoleArea(w, h, w, h);
+				}
+			}
+		}
+		
+		MoveList moves = new MoveList(width * height);
+		Search[] searches = {new Search(new TranspositionTable(TABLE_SIZE)), new Search(new TranspositionTable(TABLE_SIZE))};
+		MonteCarloSearch[] trees = new MonteCarloSearch[2];
+		ParallelSearch[] parallels = new ParallelSearch[2];
+		int passes = 0;
+		int ply = 0;
+		
+		for (int i = 0; i < trees.length; i++) {
+			if (mcts[i]) {
+				trees[i] = new MonteCarloSearch(1, MonteCarloSearch.DEFAULT_EXPLORATION, MCTS_CAPACITY);
+			} else if (parallel[i] > 0) {
+				parallels[i] = new ParallelSearch(parallel[i], new TranspositionTable(TABLE_SIZE));
+			}
+		}
+		
+		while (passes < 2) {
+			Piece current = game.getCurrentPlayer().getPiece();
+			Piece other = game.getOtherPlayer().getPiece();
+			int count = game.generateMoves(current, other, moves);
+			
+			if (count == 0) {
+				game.switchPlayers();
+				passes++;
+			} else {
+				int engine = 0;
+				
+				if ((current == Piece.WHITE) != swapped) {
+					engine = 1;
+				}
+				
+				int move = 0;
+				
+				if (ply < OPENING_MOVES) {
+					move = moves.getPosition(random.nextInt(count));
+				} else {
+					move = chooseMove(engine, game.getBoard(), current, moves, searches[engine], trees[engine],
+							parallels[engine], random);
+				}
+				
+				game.setPiece(move, game.getBoard().flipDirections(move, current, other), current);
+				passes = 0;
+				ply++;
+			}
+		}
+		
+		for (int i = 0; i < trees.length; i++) {
+			if (trees[i] != null) {
+				trees[i].shutdown();
+			}
+			
+			if (parallels[i] != null) {
+				parallels[i].shutdown();
+			}
+		}
+		
+		int difference = game.numberOfPieces(Piece.BLACK) - game.numberOfPieces(Piece.WHITE);
+		
+		if (swapped) {
+			difference = -difference;
+		}
+		
+		return difference;
+	}
+	
+	/**
+	 * Returns the move of the engine with the given index.
+	 * @param engine the index of the engine
+	 * @param board the board
+	 * @param current the current piece
+	 * @param moves the possible moves
+	 * @param search the search of the engine
+	 * @param tree the Monte Carlo tree search of the engine or {@code null}
+	 * @param parallelSearch the parallel search of the engine or {@code null}
+	 * @param random the random numbers of the game
+	 * @return the move of the engine with the given index
+	 */
+	private int chooseMove(int engine, Board board, Piece current, MoveList moves, Search search,
+			MonteCarloSearch tree, ParallelSearch parallelSearch, Random random) {
+		int result = 0;
+		
+		if (tree != null) {
+			result = tree.bestMoveInTime(board, current, millis[engine]);
+		} else if (parallelSearch != null) {
+			result = parallelSearch.bestMoveInTime(board, current, millis[engine]);
+		} else if (depths[engine] > 0) {
+			result = search.bestMove(board, current, depths[engine]);
+		} else if (millis[engine] > 0L) {
+			result = search.bestMoveInTime(board, current, millis[engine]);
+		} else {
+			result = moves.getPosition(random.nextInt(moves.size()));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if the given argument is a valid engine, {@code false} otherwise.
+	 * @param engine the argument to be checked
+	 * @return {@code true} if the given argument is a valid engine, {@code false} otherwise
+	 */
+	private static boolean isEngine(String engine) {
+		return engine != null && (RANDOM.equals(engine) || (engine.matches("[1-9][0-9]?")
+				&& Integer.parseInt(engine) <= 64) || engine.matches("(" + MCTS + ")?[1-9][0-9]{0,8}ms")
+				|| engine.matches("[1-9][0-9]{0,8}ms" + THREADS + "[1-9][0-9]?t"));
+	}
+	
+	/**
+	 * Sets the depth, the time or the number of threads of the engine with the given index from the given argument.
+	 * @param index the index of the engine
+	 * @param engine the argument of the engine
+	 */
+	private void setEngine(int index, String engine) {
+		depths[index] = 0;
+		millis[index] = 0L;
+		mcts[index] = engine.startsWith(MCTS);
+		parallel[index] = 0;
+		
+		if (mcts[index]) {
+			millis[index] = Long.parseLong(engine.substring(MCTS.length(), engine.length() - 2));
+		} else if (engine.contains(THREADS)) {
+			int separator = engine.indexOf(THREADS);
+			millis[index] = Long.parseLong(engine.substring(0, separator - 2));
+			parallel[index] = Integer.parseInt(engine.substring(separator + THREADS.length(), engine.length() - 1));
+		} else if (engine.endsWith("ms")) {
+			millis[index] = Long.parseLong(engine.substring(0, engine.length() - 2));
+		} else if (!RANDOM.equals(engine)) {
+			depths[index] = Integer.parseInt(engine);
+		}
+	}
+	
+	/**
+	 * Returns the mean score of the first engine, where a win counts 1, a draw 0.5 and a loss 0.
+	 * @return the mean score of the first engine
+	 */
+	private double score() {
+		int games = wins + draws + losses;
+		
+		return (wins + (draws / 2.0)) / Math.max(1, games);
+	}
+	
+	/**
+	 * Returns the variance of the score of one game of the first engine.
+	 * @return the variance of the score of one game
+	 */
+	private double variance() {
+		int games = Math.max(1, wins + draws + losses);
+		double score = score();
+		
+		return ((wins * (1 - score) * (1 - score)) + (draws * (0.5 - score) * (0.5 - score))
+				+ (losses * score * score)) / games;
+	}
+	
+	/**
+	 * Returns the Elo difference, which corresponds to the given mean score.
+	 * @param score the mean score
+	 * @return the Elo difference, which corresponds to the given mean score
+	 */
+	private static double elo(double score) {
+		double bounded = Math.min(1 - 1e-6, Math.max(1e-6, score));
+		
+		return -400 * Math.log10((1 / bounded) - 1);
+	}
+	
+	/**
+	 * Returns the mean score, which corresponds to the given Elo difference.
+	 * @param elo the Elo difference
+	 * @return the mean score, which corresponds to the given Elo difference
+	 */
+	private static double expectedScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+	
+}
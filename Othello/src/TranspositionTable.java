@@ -0,0 +1,195 @@
+/**
+ * This class models a transposition table for the search in the Othello game. The table stores the results
+ * of already searched positions by the hash of the position. All entries are stored in one preallocated
+ * array of long values, so that the table creates no objects after its construction. Each entry consists of
+ * two long values, the hash exclusive or the data and the data, so that several threads can use the table
+ * without locks: an entry, which was written by two threads at the same time, does not match its hash and
+ * is ignored. Two entries form a bucket. The first entry of a bucket is only replaced by a result with
+ * at least the same depth, the second entry is always replaced.
+ * @author Delyan Nikolov
+ */
+public class TranspositionTable {
+
+	/** the bound of an entry, which stores the exact score */
+	public static final int EXACT = 3;
+	
+	/** the bound of an entry, which stores a lower bound of the score */
+	public static final int LOWER = 1;
+	
+	/** the bound of an entry, which stores an upper bound of the score */
+	public static final int UPPER = 2;
+	
+	/** the number of bytes of an entry */
+	private static final int ENTRY_BYTES = 16;
+	
+	/** the number of long values of a bucket */
+	private static final int BUCKET_LONGS = 4;
+	
+	/** the mask of the depth in the data of an entry */
+	private static final int DEPTH_MASK = 0xFF;
+	
+	/** the mask of the bound in the data of an entry */
+	private static final int BOUND_MASK = 0x3;
+	
+	/** the mask of the move in the data of an entry */
+	private static final int MOVE_MASK = 0x1FFF;
+	
+	/** the shift of the depth in the data of an entry */
+	private static final int DEPTH_SHIFT = 32;
+	
+	/** the shift of the bound in the data of an entry */
+	private static final int BOUND_SHIFT = 40;
+	
+	/** the shift of the move in the data of an entry */
+	private static final int MOVE_SHIFT = 42;
+	
+	/** the entries of this table */
+	private long[] entries;
+	
+	/** the mask of the index of a bucket */
+	private int mask;
+	
+	/**
+	 * Constructs a new empty transposition table with the given size in megabytes.
+	 * The number of buckets is the greatest power of two, which fits in the given size.
+	 * @param megabytes the size of the table in megabytes
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1 || megabytes > 16384) {
+			throw new IllegalArgumentException();
+		}
+		
+		long buckets = ((long) megabytes << 20) / (2 * ENTRY_BYTES);
+		int size = 1;
+		
+		while ((long) size * 2 <= buckets && (long) size * 2 * BUCKET_LONGS <= Integer.MAX_VALUE - 8) {
+			size *= 2;
+		}
+		
+		entries = new long[size * BUCKET_LONGS];
+		mask = size - 1;
+	}
+	
+	/**
+	 * Returns the data of the entry for the position with the given hash or 0 if there is no such entry.
+	 * The parts of the data are returned by {@link #getScore}, {@link #getDepth}, {@link #getBound} and
+	 * {@link #getMove}.
+	 * @param hash the hash of the position
+	 * @return the data of the entry for the position with the given hash or 0 if there is no such entry
+	 */
+	public long probe(long hash) {
+		int index = bucket(hash);
+		long result = 0L;
+		
+		for (int i = 0; i < BUCKET_LONGS && result == 0L; i += 2) {
+			long data = entries[index + i + 1];
+			
+			if (data != 0L && (entries[index + i] ^ data) == hash) {
+				result = data;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Stores the result of the search of the position with the given hash and returns whether the new entry
+	 * replaced an entry of another position.
+	 * @param hash the hash of the position
+	 * @param depth the depth of the search
+	 * @param bound the bound of the score: {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+	 * @param score the score of the position
+	 * @param move the best move in the form {@code height * width of the board + width}
+	 * or {@link Search#PASS} if no move is known
+	 * @return whether the new entry replaced an entry of another position
+	 */
+	public boolean store(long hash, int depth, int bound, int score, int move) {
+		if (depth < 0 || depth > DEPTH_MASK) {
+			throw new IllegalArgumentException();
+		} else if (bound != EXACT && bound != LOWER && bound != UPPER) {
+			throw new IllegalArgumentException();
+		} else if (move < Search.PASS || move > MOVE_MASK - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		long data = (score & 0xFFFFFFFFL) | ((long) depth << DEPTH_SHIFT) | ((long) bound << BOUND_SHIFT)
+				| ((long) (move + 1) << MOVE_SHIFT);
+		int index = bucket(hash);
+		long first = entries[index + 1];
+		int slot = index + 2;
+		
+		if (first == 0L || (entries[index] ^ first) == hash || getDepth(first) <= depth) {
+			slot = index;
+		}
+		
+		long old = entries[slot + 1];
+		boolean result = old != 0L && (entries[slot] ^ old) != hash;
+		entries[slot] = hash ^ data;
+		entries[slot + 1] = data;
+		
+		return result;
+	}
+	
+	/**
+	 * Removes all entries from this table.
+	 */
+	public void clear() {
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = 0L;
+		}
+	}
+	
+	/**
+	 * Returns the number of entries, which this table can store.
+	 * @return the number of entries, which this table can store
+	 */
+	public int getCapacity() {
+		return entries.length / 2;
+	}
+	
+	/**
+	 * Returns the score, which is stored in the given data of an entry.
+	 * @param data the data of an entry
+	 * @return the score, which is stored in the given data
+	 */
+	public static int getScore(long data) {
+		return (int) data;
+	}
+	
+	/**
+	 * Returns the depth, which is stored in the given data of an entry.
+	 * @param data the data of an entry
+	 * @return the depth, which is stored in the given data
+	 */
+	public static int getDepth(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+	}
+	
+	/**
+	 * Returns the bound, which is stored in the given data of an entry.
+	 * @param data the data of an entry
+	 * @return the bound, which is stored in the given data
+	 */
+	public static int getBound(long data) {
+		return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+	}
+	
+	/**
+	 * Returns the move, which is stored in the given data of an entry, or {@link Search#PASS} if no move is known.
+	 * @param data the data of an entry
+	 * @return the move, which is stored in the given data
+	 */
+	public static int getMove(long data) {
+		return ((int) (data >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+	}
+	
+	/**
+	 * Returns the index of the first long value of the bucket for the given hash.
+	 * @param hash the hash of the position
+	 * @return the index of the first long value of the bucket
+	 */
+	private int bucket(long hash) {
+		return ((int) (hash ^ (hash >>> 32)) & mask) * BUCKET_LONGS;
+	}
+	
+}
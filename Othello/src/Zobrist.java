@@ -0,0 +1,153 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class stores the random keys for the Zobrist hashing of the boards with a given width and height.
+ * The hash of a board is the exclusive or of the keys of all positions with a hole, a black piece or a
+ * white piece, so that it can be updated for each changed position. The keys are also stored for each
+ * symmetry of the board, which maps the board on itself. A square board has eight symmetries
+ * (four rotations, each with and without reflection), all other boards have four symmetries
+ * (identity, both reflections and the rotation by 180 degrees). The keys are generated from a fixed seed,
+ * so that the hashes stay the same in each run of the program.
+ * @author Delyan Nikolov
+ */
+public final class Zobrist {
+
+	/** the seed of the random keys */
+	private static final long SEED = 0x4F7468656C6C6FL;
+	
+	/** the keys for each width and height, which have already been generated */
+	private static Map<Integer, Zobrist> instances = new HashMap<Integer, Zobrist>();
+	
+	/** the keys of each symmetry, each piece and each position */
+	private long[][][] keys;
+	
+	/** the key, which is added if white moves */
+	private long whiteToMove;
+	
+	/**
+	 * Constructs the keys for the boards with the given width and height.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 */
+	private Zobrist(int width, int height) {
+		int size = width * height;
+		Random random = new Random(SEED ^ ((long) width << 32) ^ height);
+		long[][] identity = new long[Piece.values().length][size];
+		
+		for (Piece piece : Piece.values()) {
+			if (piece != Piece.FREE) {
+				for (int i = 0; i < size; i++) {
+					identity[piece.ordinal()][i] = random.nextLong();
+				}
+			}
+		}
+		
+		whiteToMove = random.nextLong();
+		int symmetries = 4;
+		
+		if (width == height) {
+			symmetries = 8;
+		}
+		
+		keys = new long[symmetries][Piece.values().length][size];
+		
+		for (int s = 0; s < symmetries; s++) {
+			for (int i = 0; i < size; i++) {
+				int image = transform(s, i % width, i / width, width, height);
+				
+				for (int p = 0; p < identity.length; p++) {
+					keys[s][p][i] = identity[p][image];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the keys for the boards with the given width and height. The keys are generated only once.
+	 * @param width width of the boards
+	 * @param height height of the boards
+	 * @return the keys for the boards with the given width and height
+	 */
+	public static synchronized Zobrist getInstance(int width, int height) {
+		if (width < 2 || width > 26 || width % 2 != 0) {
+			throw new IllegalArgumentException();
+		} else if (height < 2 || height > 98 || height % 2 != 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		Integer geometry = (width * 100) + height;
+		Zobrist result = instances.get(geometry);
+		
+		if (result == null) {
+			result = new Zobrist(width, height);
+			instances.put(geometry, result);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the number of symmetries of the boards.
+	 * @return the number of symmetries of the boards
+	 */
+	public int getSymmetries() {
+		return keys.length;
+	}
+	
+	/**
+	 * Returns the keys of the pieces and positions for the given symmetry. The key of the given piece on the
+	 * position {@code p} is stored at {@code [piece.ordinal()][p]}. The keys of the free fields are 0.
+	 * @param symmetry the given symmetry
+	 * @return the keys of the pieces and positions for the given symmetry
+	 */
+	public long[][] getKeys(int symmetry) {
+		if (symmetry < 0 || symmetry > keys.length - 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		return keys[symmetry];
+	}
+	
+	/**
+	 * Returns the key, which is added to the hash if white moves.
+	 * @return the key, which is added to the hash if white moves
+	 */
+	public long getWhiteToMove() {
+		return whiteToMove;
+	}
+	
+	/**
+	 * Returns the position, on which the given symmetry maps the position with the given parameters.
+	 * The symmetries 0 to 3 are the identity, the reflection of the width, the reflection of the height and
+	 * the rotation by 180 degrees. The symmetries 4 to 7 additionally swap width and height.
+	 * @param symmetry the given symmetry
+	 * @param x width of the position
+	 * @param y height of the position
+	 * @param width width of the board
+	 * @param height height of the board
+	 * @return the position in the form {@code height * width of the board + width}
+	 */
+	private static int transform(int symmetry, int x, int y, int width, int height) {
+		int w = x;
+		int h = y;
+		
+		if ((symmetry & 1) != 0) {
+			w = width - 1 - w;
+		}
+		
+		if ((symmetry & 2) != 0) {
+			h = height - 1 - h;
+		}
+		
+		if ((symmetry & 4) != 0) {
+			int swap = w;
+			w = h;
+			h = swap;
+		}
+		
+		return (h * width) + w;
+	}
+	
+}